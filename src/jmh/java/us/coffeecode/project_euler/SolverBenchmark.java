@@ -0,0 +1,133 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import us.coffeecode.project_euler.registry.ComponentRegistry;
+
+/**
+ * <p>
+ * Benchmarks every solver, parameterized by problem number. The problem numbers are not listed here:
+ * {@link #main(String[])} runs JMH with every problem number in the solver index that the build generates, so a new
+ * solver is benchmarked without changing this class. Problem numbers given with <code>-p problem=...</code> are used
+ * instead. Setup fails if a problem number has no solver.
+ * </p>
+ * <p>
+ * There are two benchmarks for each solver. The cold start benchmark measures a single call in each of several fresh
+ * JVMs, which is the latency of running a solver once: it includes class loading, interpretation, and building any
+ * lazily initialized tables the solver uses. The steady state benchmark measures the average time of calls after
+ * warming up, which is the throughput of the algorithm itself. The Spring context is created during setup, outside of
+ * both measurements. Each call checks its result, so a broken solver fails the benchmark.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolverBenchmark {
+
+  /** Default problem number, which stands for every solver in the index and is replaced by {@link #main(String[])}. */
+  private static final String ALL = "all";
+
+  @Param(ALL)
+  public String problem;
+
+  private ConfigurableApplicationContext context;
+
+  private ISolver solver;
+
+  private long expected;
+
+  /**
+   * Run JMH with the given command line, adding every problem number in the solver index unless it names some.
+   *
+   * @param args the JMH command line.
+   */
+  public static void main(final String[] args) throws Exception {
+    String[] jmhArgs = args;
+    if (!new CommandLineOptions(args).getParameter("problem").hasValue()) {
+      final String problems = String.join(",", new ComponentRegistry(InjectionConfiguration.class).getSolverIds());
+      jmhArgs = Arrays.copyOf(args, args.length + 2);
+      jmhArgs[args.length] = "-p";
+      jmhArgs[args.length + 1] = "problem=" + problems;
+    }
+    org.openjdk.jmh.Main.main(jmhArgs);
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (ALL.equals(problem)) {
+      throw new IllegalStateException("Run SolverBenchmark.main, or give problem numbers with -p problem=...");
+    }
+    context = new AnnotationConfigApplicationContext(InjectionConfiguration.class);
+    solver = context.getBean(problem, ISolver.class);
+    expected = solver.getExpectedResult();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(5)
+  public long coldStart() {
+    return check(solver.getActualResult());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @Warmup(iterations = 3, time = 2)
+  @Measurement(iterations = 5, time = 2)
+  @Fork(1)
+  public long steadyState() {
+    return check(solver.getActualResult());
+  }
+
+  private long check(final long actual) {
+    if (actual != expected) {
+      throw new IllegalStateException("Problem " + problem + " expected " + expected + " but was " + actual);
+    }
+    return actual;
+  }
+
+}
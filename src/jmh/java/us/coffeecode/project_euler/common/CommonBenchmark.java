@@ -0,0 +1,156 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.coffeecode.project_euler.common.primes.SegmentedSievePrimeProvider;
+
+/**
+ * <p>
+ * Steady state microbenchmarks for the utilities in the common package. Each benchmark operates on one value from a
+ * fixed, random sequence, cycling through it so results do not depend on one lucky value. The sequences are longer than
+ * the caches in {@link Factorizer} and {@link PrimeFactorizer}, so those benchmarks include both hits and misses.
+ * </p>
+ * <p>
+ * Run with <code>-bm ss -wi 0 -i 1 -f 10</code> to measure cold, single-shot latency instead.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonBenchmark {
+
+  /** Length of each sequence of inputs. Must be a power of two. */
+  private static final int VALUES = 1 << 14;
+
+  private static final int MAX_VALUE = 1_000_000;
+
+  private final Factorizer factorizer = new Factorizer();
+
+  private final PrimeFactorizer primeFactorizer = new PrimeFactorizer();
+
+  private final SmallestPrimeFactorTable smallestPrimeFactors = new SmallestPrimeFactorTable(MAX_VALUE);
+
+  private final ArithmeticFunctionTable arithmeticFunctions = new ArithmeticFunctionTable(MAX_VALUE);
+
+  private final MillerRabin millerRabin = new MillerRabin();
+
+  private final PermutationCheck permutationCheck = new PermutationCheck();
+
+  private final Pandigital pandigital = new Pandigital();
+
+  private final IntKeyCache<Integer> cache = new IntKeyCache<>(VALUES);
+
+  private final int[] factors = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+
+  private final int[] exponents = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+
+  private int[] primes;
+
+  private int[] values;
+
+  private long[] longValues;
+
+  private int index;
+
+  @Setup
+  public void setUp() {
+    final SplittableRandom random = new SplittableRandom(12);
+    primes = new SegmentedSievePrimeProvider().getPrimesEqualToOrLessThan(MAX_VALUE);
+    values = random.ints(VALUES, 2, MAX_VALUE).toArray();
+    longValues = random.longs(VALUES, 2, Long.MAX_VALUE).toArray();
+    for (final int value : values) {
+      cache.put(value, Integer.valueOf(value));
+    }
+    // Build the tables up front, so they are not part of the first measurement.
+    smallestPrimeFactors.countDistinctPrimeFactors(MAX_VALUE);
+    arithmeticFunctions.getTotient(MAX_VALUE);
+  }
+
+  private int next() {
+    return values[index++ & (VALUES - 1)];
+  }
+
+  @Benchmark
+  public int[] factorizer() {
+    return factorizer.apply(next() >> 4);
+  }
+
+  @Benchmark
+  public List<int[]> primeFactorizer() {
+    return primeFactorizer.apply(primes, next());
+  }
+
+  @Benchmark
+  public int smallestPrimeFactorTable() {
+    return smallestPrimeFactors.factor(next(), factors, exponents);
+  }
+
+  @Benchmark
+  public long arithmeticFunctionTable() {
+    return arithmeticFunctions.getDivisorSum(next());
+  }
+
+  @Benchmark
+  public boolean millerRabinInt() {
+    return millerRabin.test(next());
+  }
+
+  @Benchmark
+  public boolean millerRabinLong() {
+    return millerRabin.test(longValues[index++ & (VALUES - 1)]);
+  }
+
+  @Benchmark
+  public boolean permutationCheck() {
+    final int value = next();
+    return permutationCheck.test(value, value * 3L);
+  }
+
+  @Benchmark
+  public boolean pandigital() {
+    return pandigital.test(next());
+  }
+
+  @Benchmark
+  public Integer intKeyCache() {
+    return cache.get(next());
+  }
+
+}
@@ -0,0 +1,110 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import us.coffeecode.project_euler.common.MillerRabin;
+
+/**
+ * <p>
+ * Steady state benchmarks comparing ways to check whether a number is prime: a lookup in the {@link PrimalityCheck}
+ * bitset, a deterministic {@link MillerRabin} test, and a binary search of the mapped prime file in each format. Each
+ * benchmark checks one value from a fixed, random sequence of values within the range of the prime file.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimalityBenchmark {
+
+  /** Length of the sequence of values. Must be a power of two. */
+  private static final int VALUES = 1 << 14;
+
+  private final MillerRabin millerRabin = new MillerRabin();
+
+  private final IPrimeProvider fileCache = new FileCachePrimeProvider(Path.of("primes.bin"),
+    new ParallelSievePrimeProvider());
+
+  private final PrimalityCheck primalityCheck = new PrimalityCheck(fileCache, millerRabin);
+
+  private PrimeFile rawFile;
+
+  private PrimeFile compactFile;
+
+  private int[] values;
+
+  private int index;
+
+  @Setup
+  public void setUp() throws IOException {
+    values = new SplittableRandom(12).ints(VALUES, 0, FileCachePrimeProvider.CEILING).toArray();
+    // Build the bitset and both files up front, so they are not part of the first measurement.
+    primalityCheck.test(values[0]);
+    rawFile = PrimeFile.open(Path.of("primes.bin"));
+    final Path compactPath = Path.of("target", "primes-compact.bin");
+    new CompactFileCachePrimeProvider(compactPath).getFirstNPrimes(1);
+    compactFile = PrimeFile.open(compactPath);
+  }
+
+  private int next() {
+    return values[index++ & (VALUES - 1)];
+  }
+
+  @Benchmark
+  public boolean bitset() {
+    return primalityCheck.test(next());
+  }
+
+  @Benchmark
+  public boolean millerRabin() {
+    return millerRabin.test(next());
+  }
+
+  @Benchmark
+  public boolean binarySearchRaw() {
+    return rawFile.indexOf(next()) >= 0;
+  }
+
+  @Benchmark
+  public boolean binarySearchCompact() {
+    return compactFile.indexOf(next()) >= 0;
+  }
+
+}
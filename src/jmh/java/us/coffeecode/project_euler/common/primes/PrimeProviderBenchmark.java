@@ -0,0 +1,107 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Steady state benchmarks for generating primes up to a ceiling with each prime provider. The file-backed providers
+ * create their files during setup if necessary, so these measure reading the cache rather than building it.
+ * </p>
+ * <p>
+ * Run with <code>-bm ss -wi 0 -i 1 -f 10</code> to measure cold, single-shot latency instead.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimeProviderBenchmark {
+
+  @Param({ "1000000", "10000000", "100000000" })
+  public int ceiling;
+
+  private final IPrimeProvider sieve = new SievePrimeProvider();
+
+  private final IPrimeProvider segmentedSieve = new SegmentedSievePrimeProvider();
+
+  private final IPrimeProvider parallelSieve = new ParallelSievePrimeProvider();
+
+  private final IPrimeProvider fileCache = new FileCachePrimeProvider(Path.of("primes.bin"), parallelSieve);
+
+  private final IPrimeProvider compactFileCache = new CompactFileCachePrimeProvider(Path.of("target",
+    "primes-compact.bin"));
+
+  @Setup
+  public void setUp() {
+    fileCache.getFirstNPrimes(1);
+    compactFileCache.getFirstNPrimes(1);
+  }
+
+  @Benchmark
+  public int[] sieve() {
+    return sieve.getPrimesEqualToOrLessThan(ceiling);
+  }
+
+  @Benchmark
+  public int[] segmentedSieve() {
+    return segmentedSieve.getPrimesEqualToOrLessThan(ceiling);
+  }
+
+  @Benchmark
+  public int[] parallelSieve() {
+    return parallelSieve.getPrimesEqualToOrLessThan(ceiling);
+  }
+
+  @Benchmark
+  public int[] fileCache() {
+    return fileCache.getPrimesEqualToOrLessThan(ceiling);
+  }
+
+  @Benchmark
+  public IntBuffer fileCacheBuffer() {
+    return fileCache.getPrimesEqualToOrLessThanBuffer(ceiling);
+  }
+
+  @Benchmark
+  public int[] compactFileCache() {
+    return compactFileCache.getPrimesEqualToOrLessThan(ceiling);
+  }
+
+}
@@ -16,15 +16,25 @@
  */
 package us.coffeecode.project_euler;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 import org.springframework.stereotype.Component;
 
+import us.coffeecode.project_euler.common.input.InputSource;
+
 /**
  * <p>
  * Interface that represents an object that solves an Euler problem.
  * </p>
  * <p>
+ * Solvers are singletons, and the same instance may be asked for its result any number of times, for example to
+ * benchmark it once the JIT compiler has warmed up. {@link #getActualResult()} must therefore be repeatable: every call
+ * returns the same result and does the same work. It must not modify its inputs in place or accumulate state in fields
+ * between calls. Scratch state such as memoization belongs in local variables. Caches shared through injected
+ * utilities are fine, since they do not change the result.
+ * </p>
+ * <p>
  * Copyright (c) 2021 John Gaughan
  * </p>
  *
@@ -33,7 +43,7 @@ import org.springframework.stereotype.Component;
 public interface ISolver {
 
   /**
-   * Get the actual result. This should be a calculated value.
+   * Get the actual result. This should be a calculated value. This must be repeatable, as described above.
    *
    * @return the actual result.
    * @throws Exception if an error occurred during calculation.
@@ -48,11 +58,11 @@ public interface ISolver {
   long getExpectedResult();
 
   /**
-   * Get the path to the input file, if one is present.
+   * Get the name of the input file, if one is present.
    *
-   * @return path to the optional input file.
+   * @return name of the optional input file, which is a resource at the root of the classpath.
    */
-  default Path getInputPath() {
+  default String getInputName() {
     final StringBuilder str = new StringBuilder(32);
     str.append(getClass().getAnnotation(Component.class).value());
     while (str.length() < 4) {
@@ -60,7 +70,27 @@ public interface ISolver {
     }
     str.insert(0, "input-problem-");
     str.append(".txt");
-    return Path.of("src", "main", "resources", str.toString());
+    return str.toString();
+  }
+
+  /**
+   * Get the path to the input file in the source tree, if one is present.
+   *
+   * @return path to the optional input file.
+   */
+  default Path getInputPath() {
+    return Path.of("src", "main", "resources", getInputName());
+  }
+
+  /**
+   * Get the input file from the classpath, so it is found when running from a JAR, or from the source tree if it is not
+   * on the classpath.
+   *
+   * @return the input.
+   * @throws IOException if the input cannot be found or read.
+   */
+  default InputSource getInputSource() throws IOException {
+    return InputSource.resolve(getClass().getClassLoader(), getInputName(), getInputPath());
   }
 
 }
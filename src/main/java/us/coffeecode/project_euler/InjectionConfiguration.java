@@ -22,8 +22,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import us.coffeecode.project_euler.common.input.InputCache;
 import us.coffeecode.project_euler.common.primes.FileCachePrimeProvider;
 import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.ParallelSievePrimeProvider;
 
 /**
  * <p>
@@ -39,21 +41,36 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
 @ComponentScan
 public class InjectionConfiguration {
 
+  /** System property naming the prime cache file. Its lock and temporary files are kept next to it. */
+  public static final String PRIME_CACHE_PROPERTY = "project_euler.prime-cache";
+
+  /** System property naming the directory of input cache sidecars. If it is empty, sidecars are not written. */
+  public static final String INPUT_CACHE_PROPERTY = "project_euler.input-cache";
+
   @Bean
   public IPrimeProvider getPrimeProvider() {
-    final IPrimeProvider primes = new FileCachePrimeProvider(Path.of("primes.bin"));
-    try {
-      // This pre-caches primes prior to running any test cases. This way none of them have severe lag from the amount
-      // of time required to generate and cache the prime numbers.
-      primes.getFirstNPrimes(1);
-    }
-    catch (final RuntimeException ex) {
-      throw ex;
-    }
-    catch (final Exception ex) {
-      throw new RuntimeException(ex);
-    }
+    // The parallel sieve generates the cache on every core, using a few megabytes of working memory per thread instead
+    // of a sieve covering the entire range. Pass a SegmentedSievePrimeProvider to generate it on a single thread, or a
+    // SievePrimeProvider to use the classic sieve. A CompactFileCachePrimeProvider stores the same primes in about a
+    // quarter of the space, but decodes them on each request instead of reading them straight from the mapped file.
+    // If the file does not exist, it is generated in the background, so creating the context is quick. Solvers that
+    // need no primes run right away, and the rest wait only until the primes they need are written. The file starts
+    // small and is extended whenever a solver needs more primes than it holds. It is in the working directory unless
+    // the system property names another file, so runs from different directories can share one cache.
+    final Path file = Path.of(System.getProperty(PRIME_CACHE_PROPERTY, "primes.bin"));
+    final FileCachePrimeProvider primes = new FileCachePrimeProvider(file, new ParallelSievePrimeProvider());
+    primes.warmUp();
     return primes;
   }
 
+  @Bean
+  public InputCache getInputCache() {
+    // Parsed input files are kept in memory, up to 64 MB, so solvers run repeatedly do not parse them each time. Binary
+    // copies let later runs skip parsing the text as well. They go in the temporary directory unless the system
+    // property names another, so running from an arbitrary working directory does not create files there.
+    final String sidecars = System.getProperty(INPUT_CACHE_PROPERTY,
+      Path.of(System.getProperty("java.io.tmpdir"), "project_euler-input-cache").toString());
+    return new InputCache(64 << 20, sidecars.isEmpty() ? null : Path.of(sidecars));
+  }
+
 }
@@ -0,0 +1,235 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.Arrays;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Table of common arithmetic functions for every number up to a bound, so each value can be read in constant time:
+ * </p>
+ * <ul>
+ * <li>&sigma;(n), the sum of all divisors of n including n itself.</li>
+ * <li>d(n), the quantity of divisors of n including one and n itself.</li>
+ * <li>&phi;(n), Euler's totient: the quantity of numbers up to n that are coprime to n.</li>
+ * <li>&omega;(n), the quantity of distinct prime factors of n.</li>
+ * </ul>
+ * <p>
+ * The values are calculated together by a linear sieve. Each of these functions is multiplicative, so the value for a
+ * number is the product of the values for its prime power factors. The sieve reaches each composite exactly once, from
+ * its smallest prime factor p, and it tracks the largest power of p dividing each number. This splits every number into
+ * a prime power and a coprime remainder whose values are already known.
+ * </p>
+ * <p>
+ * Like {@link SmallestPrimeFactorTable}, the table is built lazily and only as large as the numbers requested so far,
+ * up to the configured bound.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@Component
+public class ArithmeticFunctionTable {
+
+  /** Default bound of the table. The table for this bound takes 170 MB. */
+  private static final int DEFAULT_BOUND = 10_000_000;
+
+  /** Smallest size of the table, so small requests do not rebuild it repeatedly. */
+  private static final int MIN_SIZE = 1 << 16;
+
+  private final int bound;
+
+  private volatile Values values = new Values(0);
+
+  /** Constructs an <code>ArithmeticFunctionTable</code> with the default bound. */
+  public ArithmeticFunctionTable() {
+    this(DEFAULT_BOUND);
+  }
+
+  /**
+   * Constructs an <code>ArithmeticFunctionTable</code> that covers numbers up to the given bound.
+   *
+   * @param maximum the largest number in the table.
+   */
+  public ArithmeticFunctionTable(final int maximum) {
+    if ((maximum < 1) || (maximum == Integer.MAX_VALUE)) {
+      throw new IllegalArgumentException("Bound " + maximum + " must be positive and less than Integer.MAX_VALUE");
+    }
+    bound = maximum;
+  }
+
+  /** Get the largest number in the table. */
+  public int getBound() {
+    return bound;
+  }
+
+  /**
+   * Get the sum of all divisors of the given number, including the number itself.
+   *
+   * @param number the number, which must be between one and the bound.
+   * @return &sigma;(n).
+   */
+  public long getDivisorSum(final int number) {
+    return getValues(number).sigma[number];
+  }
+
+  /**
+   * Get the sum of the proper divisors of the given number: every divisor except the number itself.
+   *
+   * @param number the number, which must be between one and the bound.
+   * @return &sigma;(n) - n.
+   */
+  public long getProperDivisorSum(final int number) {
+    return getValues(number).sigma[number] - number;
+  }
+
+  /**
+   * Get the quantity of divisors of the given number, including one and the number itself.
+   *
+   * @param number the number, which must be between one and the bound.
+   * @return d(n).
+   */
+  public int getDivisorCount(final int number) {
+    return getValues(number).divisors[number];
+  }
+
+  /**
+   * Get Euler's totient of the given number.
+   *
+   * @param number the number, which must be between one and the bound.
+   * @return &phi;(n).
+   */
+  public int getTotient(final int number) {
+    return getValues(number).phi[number];
+  }
+
+  /**
+   * Get the quantity of distinct prime factors of the given number.
+   *
+   * @param number the number, which must be between one and the bound.
+   * @return &omega;(n).
+   */
+  public int getDistinctPrimeFactorCount(final int number) {
+    return getValues(number).omega[number];
+  }
+
+  /** Get the values, building or growing the table if it does not cover the given number. */
+  private Values getValues(final int number) {
+    Values v = values;
+    if ((0 < number) && (number < v.size)) {
+      return v;
+    }
+    if ((number < 1) || (number > bound)) {
+      throw new IllegalArgumentException("Number " + number + " must be between one and the bound " + bound);
+    }
+    synchronized (this) {
+      v = values;
+      if (number >= v.size) {
+        final long size = Math.max(Math.max(MIN_SIZE, (long) v.size << 1), number + 1L);
+        v = new Values((int) Math.min(size, bound + 1L));
+        values = v;
+      }
+    }
+    return v;
+  }
+
+  /** Values of each function for every number less than the size. */
+  private static final class Values {
+
+    final int size;
+
+    final long[] sigma;
+
+    final int[] divisors;
+
+    final int[] phi;
+
+    final byte[] omega;
+
+    Values(final int tableSize) {
+      size = tableSize;
+      sigma = new long[size];
+      divisors = new int[size];
+      phi = new int[size];
+      omega = new byte[size];
+      if (size > 1) {
+        sigma[1] = 1;
+        divisors[1] = 1;
+        phi[1] = 1;
+      }
+
+      // Element n is the largest power of n's smallest prime factor that divides n. Zero means n is not yet marked, so
+      // it is prime.
+      final int[] power = new int[size];
+      // There are fewer than 1.25506 n / ln n primes up to n, so this is always large enough.
+      int[] primes = new int[(int) (1.25506 * size / Math.log(Math.max(size, 3))) + 1];
+      int found = 0;
+      for (int i = 2; i < size; ++i) {
+        if (power[i] == 0) {
+          power[i] = i;
+          sigma[i] = i + 1L;
+          divisors[i] = 2;
+          phi[i] = i - 1;
+          omega[i] = 1;
+          if (found == primes.length) {
+            primes = Arrays.copyOf(primes, primes.length << 1);
+          }
+          primes[found++] = i;
+        }
+        for (int j = 0; j < found; ++j) {
+          final int prime = primes[j];
+          final long product = (long) i * prime;
+          if (product >= size) {
+            break;
+          }
+          final int n = (int) product;
+          if (i % prime != 0) {
+            // The prime is smaller than every prime factor of i, so it is coprime to i.
+            power[n] = prime;
+            sigma[n] = sigma[i] * sigma[prime];
+            divisors[n] = divisors[i] << 1;
+            phi[n] = phi[i] * (prime - 1);
+            omega[n] = (byte) (omega[i] + 1);
+          }
+          else {
+            // The prime is the smallest prime factor of i: n has one more power of it than i.
+            power[n] = power[i] * prime;
+            phi[n] = phi[i] * prime;
+            omega[n] = omega[i];
+            final int remainder = i / power[i];
+            if (remainder == 1) {
+              // n is a power of the prime.
+              sigma[n] = sigma[i] * prime + 1;
+              divisors[n] = divisors[i] + 1;
+            }
+            else {
+              sigma[n] = sigma[power[n]] * sigma[remainder];
+              divisors[n] = divisors[power[n]] * divisors[remainder];
+            }
+            // Larger primes are not the smallest prime factor of their product with i, so they are handled later.
+            break;
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -17,15 +17,13 @@
 package us.coffeecode.project_euler.common;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.IntFunction;
 
 import org.springframework.stereotype.Component;
 
 /**
  * <p>
- * Function that gets the factors of a number, and caches the results.
+ * Function that gets the factors of a number, and caches the results. The cache is bounded and thread-safe.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -37,7 +35,10 @@ import org.springframework.stereotype.Component;
 public class Factorizer
 implements IntFunction<int[]> {
 
-  private final Map<Integer, int[]> factorCache = new HashMap<>();
+  /** Maximum quantity of factorizations to cache. */
+  private static final int CACHE_SIZE = 1 << 12;
+
+  private final IntKeyCache<int[]> factorCache = new IntKeyCache<>(CACHE_SIZE);
 
   /**
    * Get all regular factors of a given number. These factors include one, but not the number itself.
@@ -47,23 +48,29 @@ implements IntFunction<int[]> {
    */
   @Override
   public int[] apply(final int value) {
-    final Integer key = Integer.valueOf(value);
-    if (!factorCache.containsKey(key)) {
-      final int ceiling = value >> 1;
-      int found = 0;
-      int[] factors = new int[ceiling];
-      for (int candidate = 1; candidate <= ceiling; ++candidate) {
-        if (value % candidate == 0) {
-          factors[found] = candidate;
-          ++found;
-        }
-      }
-      if (found < factors.length) {
-        factors = Arrays.copyOf(factors, found);
+    return factorCache.computeIfAbsent(value, Factorizer::getFactors);
+  }
+
+  /** Get the factors of a number without using the cache. */
+  private static int[] getFactors(final int value) {
+    final int ceiling = value >> 1;
+    int found = 0;
+    int[] factors = new int[ceiling];
+    for (int candidate = 1; candidate <= ceiling; ++candidate) {
+      if (value % candidate == 0) {
+        factors[found] = candidate;
+        ++found;
       }
-      factorCache.put(key, factors);
     }
-    return factorCache.get(key);
+    if (found < factors.length) {
+      factors = Arrays.copyOf(factors, found);
+    }
+    return factors;
+  }
+
+  /** Get the cache, which exposes hit and miss counts. */
+  public IntKeyCache<int[]> getCache() {
+    return factorCache;
   }
 
 }
@@ -0,0 +1,311 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * <p>
+ * Thread-safe cache with primitive <code>int</code> keys and a fixed maximum size. Keys are never boxed, and memory
+ * stays flat no matter how many distinct keys are requested.
+ * </p>
+ * <p>
+ * The cache is split into stripes, each with its own lock, so threads using different keys rarely contend. Each stripe
+ * stores its entries in fixed arrays and finds them through an open addressing hash table with linear probing. When a
+ * stripe is full, an entry is evicted using the CLOCK algorithm: every entry has a reference bit that is set when it is
+ * read, and the clock hand sweeps over the entries clearing reference bits until it finds one that is clear. This
+ * approximates least recently used eviction without reordering anything on a read.
+ * </p>
+ * <p>
+ * Values are computed outside of the lock, so a slow computation does not block other threads. Two threads that miss on
+ * the same key at the same time may both compute the value, and the first one stored wins.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ *
+ * @param <V> the type of values in the cache.
+ */
+public final class IntKeyCache<V> {
+
+  /** Quantity of stripes. Must be a power of two. */
+  private static final int STRIPES = 16;
+
+  private final Stripe<V>[] stripes;
+
+  private final int capacity;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs an <code>IntKeyCache</code>.
+   *
+   * @param maximumSize the maximum quantity of entries in the cache. This is rounded up to a multiple of the quantity
+   * of stripes.
+   */
+  @SuppressWarnings("unchecked")
+  public IntKeyCache(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("Maximum size " + maximumSize + " must be positive");
+    }
+    final int stripeCapacity = (maximumSize + STRIPES - 1) / STRIPES;
+    stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; ++i) {
+      stripes[i] = new Stripe<>(stripeCapacity);
+    }
+    capacity = stripeCapacity * STRIPES;
+  }
+
+  /**
+   * Get the value for the given key.
+   *
+   * @param key the key.
+   * @return the value, or null if the key is not in the cache.
+   */
+  public V get(final int key) {
+    final int hash = hash(key);
+    final V value = stripe(hash).get(key, hash);
+    (value == null ? misses : hits).increment();
+    return value;
+  }
+
+  /**
+   * Get the value for the given key, computing and storing it if the key is not in the cache.
+   *
+   * @param key the key.
+   * @param function computes the value for a key. It must not return null.
+   * @return the value.
+   */
+  public V computeIfAbsent(final int key, final IntFunction<? extends V> function) {
+    final int hash = hash(key);
+    final Stripe<V> stripe = stripe(hash);
+    final V value = stripe.get(key, hash);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    final V computed = function.apply(key);
+    if (computed == null) {
+      throw new NullPointerException("Value for key " + key + " is null");
+    }
+    return stripe.putIfAbsent(key, hash, computed, evictions);
+  }
+
+  /**
+   * Store a value for the given key, replacing any existing value.
+   *
+   * @param key the key.
+   * @param value the value, which must not be null.
+   */
+  public void put(final int key, final V value) {
+    if (value == null) {
+      throw new NullPointerException("Value for key " + key + " is null");
+    }
+    final int hash = hash(key);
+    stripe(hash).put(key, hash, value, evictions);
+  }
+
+  /** Remove every entry from the cache. The counters are not reset. */
+  public void clear() {
+    for (final Stripe<V> stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  /** Get the quantity of entries in the cache. */
+  public int size() {
+    int size = 0;
+    for (final Stripe<V> stripe : stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /** Get the maximum quantity of entries in the cache. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Get the quantity of lookups that found a value. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Get the quantity of lookups that did not find a value. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Get the quantity of entries evicted to make room for others. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Spread the bits of the key, since keys are often small consecutive numbers. */
+  private static int hash(final int key) {
+    final int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /** Get the stripe for a hash. The low bits are used within the stripe, so this uses the high bits. */
+  private Stripe<V> stripe(final int hash) {
+    return stripes[hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES))];
+  }
+
+  /** One independently locked part of the cache. */
+  private static final class Stripe<V> {
+
+    /** Hash table: each element is an entry's slot plus one, or zero if empty. */
+    private final int[] table;
+
+    private final int mask;
+
+    private final int[] keys;
+
+    private final Object[] values;
+
+    /** Reference bits for the CLOCK algorithm. */
+    private final boolean[] referenced;
+
+    private int size;
+
+    /** Position of the CLOCK hand. */
+    private int hand;
+
+    Stripe(final int capacity) {
+      // Keep the load factor at or below one half so probe sequences stay short.
+      table = new int[Integer.highestOneBit(capacity) << 2];
+      mask = table.length - 1;
+      keys = new int[capacity];
+      values = new Object[capacity];
+      referenced = new boolean[capacity];
+    }
+
+    synchronized V get(final int key, final int hash) {
+      final int slot = find(key, hash);
+      if (slot < 0) {
+        return null;
+      }
+      referenced[slot] = true;
+      return value(slot);
+    }
+
+    synchronized V putIfAbsent(final int key, final int hash, final V value, final LongAdder evictions) {
+      final int slot = find(key, hash);
+      if (slot >= 0) {
+        referenced[slot] = true;
+        return value(slot);
+      }
+      insert(key, hash, value, evictions);
+      return value;
+    }
+
+    synchronized void put(final int key, final int hash, final V value, final LongAdder evictions) {
+      final int slot = find(key, hash);
+      if (slot >= 0) {
+        values[slot] = value;
+        referenced[slot] = true;
+      }
+      else {
+        insert(key, hash, value, evictions);
+      }
+    }
+
+    synchronized void clear() {
+      Arrays.fill(table, 0);
+      Arrays.fill(values, null);
+      Arrays.fill(referenced, false);
+      size = 0;
+      hand = 0;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(final int slot) {
+      return (V) values[slot];
+    }
+
+    /** Get the slot holding the key, or -1 if it is not present. */
+    private int find(final int key, final int hash) {
+      for (int i = hash & mask; table[i] != 0; i = (i + 1) & mask) {
+        final int slot = table[i] - 1;
+        if (keys[slot] == key) {
+          return slot;
+        }
+      }
+      return -1;
+    }
+
+    /** Add a key that is not present, evicting another entry if the stripe is full. */
+    private void insert(final int key, final int hash, final V value, final LongAdder evictions) {
+      final int slot;
+      if (size < keys.length) {
+        slot = size++;
+      }
+      else {
+        // Give every recently read entry a second chance.
+        while (referenced[hand]) {
+          referenced[hand] = false;
+          hand = (hand + 1) % keys.length;
+        }
+        slot = hand;
+        hand = (hand + 1) % keys.length;
+        remove(keys[slot]);
+        evictions.increment();
+      }
+      keys[slot] = key;
+      values[slot] = value;
+      referenced[slot] = false;
+      int i = hash & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = slot + 1;
+    }
+
+    /** Remove a key from the hash table, shifting later entries back so no probe sequence is broken. */
+    private void remove(final int key) {
+      int i = hash(key) & mask;
+      while (keys[table[i] - 1] != key) {
+        i = (i + 1) & mask;
+      }
+      for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+        final int home = hash(keys[table[j] - 1]) & mask;
+        // Move the entry at j into the gap at i unless its home position lies cyclically in (i, j].
+        final boolean between = i <= j ? (i < home) && (home <= j) : (i < home) || (home <= j);
+        if (!between) {
+          table[i] = table[j];
+          i = j;
+        }
+      }
+      table[i] = 0;
+    }
+  }
+
+}
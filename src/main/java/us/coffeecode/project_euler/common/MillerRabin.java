@@ -0,0 +1,207 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.function.LongPredicate;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Determines if numbers are prime using a deterministic Miller-Rabin test. This works for every nonnegative
+ * <code>long</code> without any table of primes. Testing the first twelve primes as witnesses is sufficient to make the
+ * test deterministic for every n &lt; 3.3 &times; 10<sup>24</sup>, which covers the entire range.
+ * </p>
+ * <p>
+ * Fewer witnesses are needed for smaller values, so the witnesses used depend on the value being tested. Values up to
+ * the square root of {@link Long#MAX_VALUE} use ordinary modular multiplication. For larger values, modular
+ * multiplication of two 63-bit values needs a 126-bit intermediate product. Rather than using
+ * {@link java.math.BigInteger}, the modular exponentiation is done in Montgomery form: the high half of each product
+ * comes from {@link Math#multiplyHigh(long, long)}, and the reduction only needs multiplication and shifts instead of
+ * division.
+ * </p>
+ * <p>
+ * For values within the range of the prime file, <code>PrimalityBenchmark</code> (JDK 17, one core) measured about
+ * 105 ns per test, against 85 ns for a lookup in the {@link us.coffeecode.project_euler.common.primes.PrimalityCheck}
+ * bitset and 190 ns or 600 ns for a binary search of the raw or compact prime file. The bitset is slightly faster, but
+ * it must first be built from the primes, so this test is the better choice for a few checks or for larger values.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@Component
+public class MillerRabin
+implements LongPredicate {
+
+  /** Witnesses that make the test deterministic for every n &lt; 3.3 &times; 10<sup>24</sup>. */
+  private static final int[] BASES = new int[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37 };
+
+  /** Witnesses that make the test deterministic for every n &lt; 4,759,123,141. */
+  private static final int[] BASES_SMALL = new int[] { 2, 7, 61 };
+
+  /** Witnesses that make the test deterministic for every n &lt; 341,550,071,728,321. */
+  private static final int[] BASES_MEDIUM = new int[] { 2, 3, 5, 7, 11, 13, 17 };
+
+  /** Largest value whose square fits in a signed long, so products modulo smaller values do not overflow. */
+  private static final long MAX_DIRECT = 3_037_000_499L;
+
+  @Override
+  public boolean test(final long value) {
+    if (value < 2) {
+      return false;
+    }
+    // Trial division by the bases handles small values, and guarantees the value is odd and coprime to every base.
+    for (final int base : BASES) {
+      if (value % base == 0) {
+        return value == base;
+      }
+    }
+    if (value < 41 * 41) {
+      return true;
+    }
+
+    final int s = Long.numberOfTrailingZeros(value - 1);
+    final long d = (value - 1) >>> s;
+    if (value <= MAX_DIRECT) {
+      return testDirect(value, d, s);
+    }
+    return testMontgomery(value, d, s, value < 341_550_071_728_321L ? BASES_MEDIUM : BASES);
+  }
+
+  /** Test a value small enough that products modulo the value fit in a long, where value - 1 = d &times; 2^s. */
+  private boolean testDirect(final long n, final long d, final int s) {
+    for (final int base : BASES_SMALL) {
+      long x = 1;
+      long b = base;
+      for (long e = d; e > 0; e >>>= 1) {
+        if ((e & 1) == 1) {
+          x = (x * b) % n;
+        }
+        b = (b * b) % n;
+      }
+      if ((x == 1) || (x == n - 1)) {
+        continue;
+      }
+      boolean composite = true;
+      for (int r = 1; composite && (r < s); ++r) {
+        x = (x * x) % n;
+        composite = x != n - 1;
+      }
+      if (composite) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Test a value using Montgomery multiplication, where value - 1 = d &times; 2^s. */
+  private boolean testMontgomery(final long n, final long d, final int s, final int[] bases) {
+    final Montgomery m = new Montgomery(n);
+    for (final int base : bases) {
+      long x = m.pow(m.toMontgomery(base), d);
+      if ((x == m.one) || (x == m.minusOne)) {
+        continue;
+      }
+      boolean composite = true;
+      for (int r = 1; composite && (r < s); ++r) {
+        x = m.multiply(x, x);
+        composite = x != m.minusOne;
+      }
+      if (composite) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Montgomery arithmetic modulo an odd n &lt; 2<sup>63</sup>, using R = 2<sup>64</sup>. */
+  private static final class Montgomery {
+
+    private final long n;
+
+    /** -n<sup>-1</sup> mod R. */
+    private final long nPrime;
+
+    /** R<sup>2</sup> mod n, used to convert values into Montgomery form. */
+    private final long r2;
+
+    /** One in Montgomery form: R mod n. */
+    final long one;
+
+    /** Minus one in Montgomery form: -R mod n. */
+    final long minusOne;
+
+    Montgomery(final long modulus) {
+      n = modulus;
+      // Newton's method: each iteration doubles the number of correct low bits. For odd n, n is its own inverse mod 8.
+      long inverse = n;
+      for (int i = 0; i < 5; ++i) {
+        inverse *= 2 - (n * inverse);
+      }
+      nPrime = -inverse;
+      one = Long.remainderUnsigned(-n, n);
+      minusOne = n - one;
+      // Double R mod n sixty-four times to get R^2 mod n. Since n < 2^63, doubling never overflows an unsigned long.
+      long r = one;
+      for (int i = 0; i < 64; ++i) {
+        r <<= 1;
+        if (Long.compareUnsigned(r, n) >= 0) {
+          r -= n;
+        }
+      }
+      r2 = r;
+    }
+
+    /** Convert a value in [0, n) to Montgomery form. */
+    long toMontgomery(final long value) {
+      return multiply(value, r2);
+    }
+
+    /** Multiply two values in Montgomery form. */
+    long multiply(final long a, final long b) {
+      // a and b are less than n < 2^63, so the signed high product is the same as the unsigned one.
+      final long high = Math.multiplyHigh(a, b);
+      final long low = a * b;
+      // m is chosen so that low + m * n is a multiple of R: its low half is zero, which carries into the high half
+      // unless low is zero.
+      final long m = low * nPrime;
+      final long mnHigh = Math.multiplyHigh(m, n) + ((m >> 63) & n);
+      long t = high + mnHigh + (low == 0 ? 0 : 1);
+      if (Long.compareUnsigned(t, n) >= 0) {
+        t -= n;
+      }
+      return t;
+    }
+
+    /** Raise a value in Montgomery form to the given exponent. */
+    long pow(final long base, final long exponent) {
+      long result = one;
+      long b = base;
+      for (long e = exponent; e > 0; e >>>= 1) {
+        if ((e & 1) == 1) {
+          result = multiply(result, b);
+        }
+        b = multiply(b, b);
+      }
+      return result;
+    }
+  }
+
+}
@@ -16,16 +16,15 @@
  */
 package us.coffeecode.project_euler.common;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.stereotype.Component;
 
 /**
  * <p>
- * Calculates the prime factorization of a number and caches the results.
+ * Calculates the prime factorization of a number and caches the results. The cache is bounded and thread-safe.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -36,7 +35,10 @@ import org.springframework.stereotype.Component;
 @Component
 public class PrimeFactorizer {
 
-  private final Map<Integer, List<int[]>> primeCache = new HashMap<>();
+  /** Maximum quantity of factorizations to cache. */
+  private static final int CACHE_SIZE = 1 << 12;
+
+  private final IntKeyCache<List<int[]>> primeCache = new IntKeyCache<>(CACHE_SIZE);
 
   /**
    * Get the prime factors of the given number.
@@ -47,24 +49,31 @@ public class PrimeFactorizer {
    * the second is the number of times it appears.
    */
   public List<int[]> apply(final int[] primes, final int number) {
-    final Integer key = Integer.valueOf(number);
-    if (!primeCache.containsKey(key)) {
-      final List<int[]> factors = new LinkedList<>();
-      int value = number;
-      // Iterate over the primes, divide the number as we go until there are no more factors left (it ends up at 1).
-      for (int i = 0; i < primes.length && value > 1; ++i) {
-        int appearances = 0;
-        while (value % primes[i] == 0) {
-          value /= primes[i];
-          ++appearances;
-        }
-        if (appearances > 0) {
-          factors.add(new int[] { primes[i], appearances });
-        }
+    return primeCache.computeIfAbsent(number, n -> getPrimeFactors(primes, n));
+  }
+
+  /** Get the prime factors of a number without using the cache. */
+  private static List<int[]> getPrimeFactors(final int[] primes, final int number) {
+    final List<int[]> factors = new ArrayList<>();
+    int value = number;
+    // Iterate over the primes, divide the number as we go until there are no more factors left (it ends up at 1).
+    for (int i = 0; i < primes.length && value > 1; ++i) {
+      int appearances = 0;
+      while (value % primes[i] == 0) {
+        value /= primes[i];
+        ++appearances;
+      }
+      if (appearances > 0) {
+        factors.add(new int[] { primes[i], appearances });
       }
-      primeCache.put(key, factors);
     }
-    return primeCache.get(key);
+    // The list is shared by every caller that requests this number.
+    return Collections.unmodifiableList(factors);
+  }
+
+  /** Get the cache, which exposes hit and miss counts. */
+  public IntKeyCache<List<int[]>> getCache() {
+    return primeCache;
   }
 
 }
@@ -0,0 +1,268 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.Arrays;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Factors numbers using a table of the smallest prime factor of every number up to a bound. Dividing a number by its
+ * smallest prime factor and looking up the quotient repeats until reaching one, so factoring takes O(log n) steps with
+ * no division by candidates that are not factors, and no allocation.
+ * </p>
+ * <p>
+ * The table is built by a linear sieve, which marks each composite exactly once with its smallest prime factor. It is
+ * built lazily and only as large as the numbers requested so far: when a larger number is requested, the table is
+ * rebuilt at least twice as large, up to the configured bound. Factors are written into arrays supplied by the caller.
+ * Factoring a range of consecutive numbers at once, as when searching for runs of numbers with some property, only
+ * needs to check the table once for the whole range.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@Component
+public class SmallestPrimeFactorTable {
+
+  /**
+   * Largest quantity of distinct prime factors of any <code>int</code>. The product of the first ten primes does not
+   * fit in an <code>int</code>.
+   */
+  public static final int MAX_DISTINCT_FACTORS = 9;
+
+  /** Default bound of the table. The table for this bound takes 40 MB. */
+  private static final int DEFAULT_BOUND = 10_000_000;
+
+  /** Smallest size of the table, so small requests do not rebuild it repeatedly. */
+  private static final int MIN_SIZE = 1 << 16;
+
+  private final int bound;
+
+  /** Element n is the smallest prime factor of n, for n &gt;= 2. */
+  private volatile int[] table = new int[0];
+
+  /** Constructs a <code>SmallestPrimeFactorTable</code> with the default bound. */
+  public SmallestPrimeFactorTable() {
+    this(DEFAULT_BOUND);
+  }
+
+  /**
+   * Constructs a <code>SmallestPrimeFactorTable</code> that can factor numbers up to the given bound.
+   *
+   * @param maximum the largest number this can factor.
+   */
+  public SmallestPrimeFactorTable(final int maximum) {
+    if ((maximum < 1) || (maximum == Integer.MAX_VALUE)) {
+      throw new IllegalArgumentException("Bound " + maximum + " must be positive and less than Integer.MAX_VALUE");
+    }
+    bound = maximum;
+  }
+
+  /** Get the largest number this can factor. */
+  public int getBound() {
+    return bound;
+  }
+
+  /**
+   * Get the smallest prime factor of the given number.
+   *
+   * @param number the number, which must be between two and the bound.
+   * @return the smallest prime factor, which is the number itself if it is prime.
+   */
+  public int getSmallestPrimeFactor(final int number) {
+    if (number < 2) {
+      throw new IllegalArgumentException("Number " + number + " has no prime factors");
+    }
+    return getTable(number)[number];
+  }
+
+  /**
+   * Get the prime factorization of the given number.
+   *
+   * @param number the number to factor, which must be between zero and the bound. Zero and one have no prime factors.
+   * @param primes receives the distinct prime factors in ascending order. Must have room for
+   * {@value #MAX_DISTINCT_FACTORS} elements, or for the number's distinct prime factors if that is known to be fewer.
+   * @param exponents receives the number of times each prime appears, at the same index as the prime. May be null if
+   * the exponents are not needed.
+   * @return the quantity of distinct prime factors written.
+   */
+  public int factor(final int number, final int[] primes, final int[] exponents) {
+    if (number < 0) {
+      throw new IllegalArgumentException("Number " + number + " must be nonnegative");
+    }
+    return factor(getTable(number), number, primes, exponents, 0);
+  }
+
+  /**
+   * Get the quantity of distinct prime factors of the given number.
+   *
+   * @param number the number, which must be between zero and the bound.
+   * @return the quantity of distinct prime factors.
+   */
+  public int countDistinctPrimeFactors(final int number) {
+    if (number < 0) {
+      throw new IllegalArgumentException("Number " + number + " must be nonnegative");
+    }
+    return countDistinctPrimeFactors(getTable(number), number);
+  }
+
+  /**
+   * Get the quantity of distinct prime factors of each number in a range of consecutive numbers.
+   *
+   * @param first the first number in the range, which must be nonnegative.
+   * @param counts receives the quantity of distinct prime factors of <code>first + i</code> at index <em>i</em>. The
+   * length of this array is the length of the range, and the last number in the range must not exceed the bound.
+   */
+  public void countDistinctPrimeFactors(final int first, final int[] counts) {
+    final int[] t = getRangeTable(first, counts.length);
+    for (int i = 0; i < counts.length; ++i) {
+      counts[i] = countDistinctPrimeFactors(t, first + i);
+    }
+  }
+
+  /**
+   * Get the prime factorization of each number in a range of consecutive numbers. The factorizations are stored one
+   * after another in the same arrays: the factors of <code>first + i</code> are at indices
+   * <code>offsets[i]</code> (inclusive) through <code>offsets[i + 1]</code> (exclusive).
+   *
+   * @param first the first number in the range, which must be nonnegative.
+   * @param offsets receives the index of each number's first factor, followed by the total quantity of factors. The
+   * length of the range is one less than the length of this array, and the last number in the range must not exceed the
+   * bound.
+   * @param primes receives the distinct prime factors of every number in the range. Must have room for
+   * {@value #MAX_DISTINCT_FACTORS} elements per number in the range, or for the total quantity of distinct prime
+   * factors if that is known to be fewer.
+   * @param exponents receives the number of times each prime appears, at the same index as the prime. May be null if
+   * the exponents are not needed.
+   * @return the total quantity of factors written.
+   */
+  public int factorRange(final int first, final int[] offsets, final int[] primes, final int[] exponents) {
+    if (offsets.length == 0) {
+      throw new IllegalArgumentException("Offsets must have room for the total quantity of factors");
+    }
+    final int length = offsets.length - 1;
+    final int[] t = getRangeTable(first, length);
+    int found = 0;
+    for (int i = 0; i < length; ++i) {
+      offsets[i] = found;
+      found = factor(t, first + i, primes, exponents, found);
+    }
+    offsets[length] = found;
+    return found;
+  }
+
+  /** Factor a number using the table, writing the factors starting at the given index. Returns the next index. */
+  private static int factor(final int[] t, final int number, final int[] primes, final int[] exponents,
+    final int start) {
+    int found = start;
+    int value = number;
+    while (value > 1) {
+      final int prime = t[value];
+      int appearances = 0;
+      do {
+        value /= prime;
+        ++appearances;
+      } while ((value > 1) && (t[value] == prime));
+      primes[found] = prime;
+      if (exponents != null) {
+        exponents[found] = appearances;
+      }
+      ++found;
+    }
+    return found;
+  }
+
+  /** Count the distinct prime factors of a number using the table. */
+  private static int countDistinctPrimeFactors(final int[] t, final int number) {
+    int count = 0;
+    int value = number;
+    while (value > 1) {
+      final int prime = t[value];
+      do {
+        value /= prime;
+      } while ((value > 1) && (t[value] == prime));
+      ++count;
+    }
+    return count;
+  }
+
+  /** Get the table, making sure it covers a range of numbers. */
+  private int[] getRangeTable(final int first, final int length) {
+    if (first < 0) {
+      throw new IllegalArgumentException("First number " + first + " must be nonnegative");
+    }
+    final long last = (long) first + length - 1;
+    if (last > bound) {
+      throw new IllegalArgumentException("Last number " + last + " exceeds the bound " + bound);
+    }
+    return getTable((int) Math.max(first, last));
+  }
+
+  /** Get the table, building or growing it if it does not cover the given number. */
+  private int[] getTable(final int number) {
+    int[] t = table;
+    if (number < t.length) {
+      return t;
+    }
+    if (number > bound) {
+      throw new IllegalArgumentException("Number " + number + " exceeds the bound " + bound);
+    }
+    synchronized (this) {
+      t = table;
+      if (number >= t.length) {
+        final long size = Math.max(Math.max(MIN_SIZE, (long) t.length << 1), number + 1L);
+        t = build((int) Math.min(size, bound + 1L));
+        table = t;
+      }
+    }
+    return t;
+  }
+
+  /** Build the table for every number less than the given size using a linear sieve. */
+  private static int[] build(final int size) {
+    final int[] t = new int[size];
+    // There are fewer than 1.25506 n / ln n primes up to n, so this is always large enough.
+    int[] primes = new int[(int) (1.25506 * size / Math.log(Math.max(size, 3))) + 1];
+    int found = 0;
+    for (int i = 2; i < size; ++i) {
+      if (t[i] == 0) {
+        t[i] = i;
+        if (found == primes.length) {
+          primes = Arrays.copyOf(primes, primes.length << 1);
+        }
+        primes[found++] = i;
+      }
+      // Mark i * p for each prime p no greater than the smallest prime factor of i: p is the smallest prime factor of
+      // that product, and every composite is reached exactly once this way.
+      final int spf = t[i];
+      for (int j = 0; j < found; ++j) {
+        final int prime = primes[j];
+        final long product = (long) i * prime;
+        if ((prime > spf) || (product >= size)) {
+          break;
+        }
+        t[(int) product] = prime;
+      }
+    }
+    return t;
+  }
+
+}
@@ -0,0 +1,177 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.Arrays;
+
+import us.coffeecode.project_euler.common.input.InputFile;
+
+/**
+ * <p>
+ * Finds the maximum sum of a path from the top of a triangle of numbers to its bottom, where each step moves down to
+ * one of the two adjacent numbers in the next row. Rows are consumed one at a time from the top, in the order they
+ * appear in an input file, so the triangle never has to be in memory: it can be streamed straight from
+ * {@link InputFile#forEachRow(InputFile.RowConsumer)}.
+ * </p>
+ * <p>
+ * The sums are kept in a single row that is updated in place. After row r, element j is the maximum sum of a path from
+ * the top to column j of row r. The number in column j can be reached from columns j - 1 and j of the row above, so the
+ * row is updated from right to left, and each element is replaced only after the element to its right has used it.
+ * Memory is linear in the width of the triangle, and sums are longs, so they do not overflow for millions of rows.
+ * </p>
+ * <p>
+ * Optionally, the path itself can be found. This records one bit for each number in the triangle, whether its best
+ * path came from directly above or from above and to the left, and follows those bits back up from the largest sum in
+ * the bottom row. That takes memory quadratic in the height of the triangle, though still only one bit per number.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class TriangleMaxPath
+implements InputFile.RowConsumer {
+
+  private final boolean trackPath;
+
+  /** Maximum sum of a path to each column of the last row. */
+  private long[] sums = new long[64];
+
+  private int rows;
+
+  /** Bit r(r+1)/2 + j is set if the best path to column j of row r comes from column j of the row above. */
+  private long[] above;
+
+  /**
+   * Constructs a <code>TriangleMaxPath</code>.
+   *
+   * @param path whether to record enough to find the path, not only its sum.
+   */
+  public TriangleMaxPath(final boolean path) {
+    trackPath = path;
+    above = path ? new long[64] : null;
+  }
+
+  /**
+   * Find the maximum sum of a path through a triangle in memory.
+   *
+   * @param triangle the rows, from the top. It is not modified.
+   * @return the maximum sum.
+   */
+  public static long maximum(final int[][] triangle) {
+    final TriangleMaxPath path = new TriangleMaxPath(false);
+    for (final int[] row : triangle) {
+      path.accept(row, row.length);
+    }
+    return path.getMaximum();
+  }
+
+  /**
+   * Add the next row of the triangle.
+   *
+   * @param row the numbers in the row. Only the first <code>length</code> are used, and they are not modified.
+   * @param length the quantity of numbers in the row, which must be one more than in the previous row.
+   */
+  @Override
+  public void accept(final int[] row, final int length) {
+    if (length != rows + 1) {
+      throw new IllegalArgumentException("Row " + rows + " has " + length + " numbers, expected " + (rows + 1));
+    }
+    if (length > sums.length) {
+      sums = Arrays.copyOf(sums, Math.max(length, sums.length << 1));
+    }
+    final long first = (long) rows * length >>> 1;
+    if (trackPath && ((first + length + 63) >>> 6 > above.length)) {
+      above = Arrays.copyOf(above, (int) Math.max((first + length + 63) >>> 6, (long) above.length << 1));
+    }
+
+    if (rows == 0) {
+      sums[0] = row[0];
+    }
+    else {
+      final int last = length - 1;
+      sums[last] = row[last] + sums[last - 1];
+      for (int j = last - 1; j > 0; --j) {
+        final boolean fromAbove = sums[j] > sums[j - 1];
+        sums[j] = row[j] + (fromAbove ? sums[j] : sums[j - 1]);
+        if (fromAbove && trackPath) {
+          final long bit = first + j;
+          above[(int) (bit >>> 6)] |= 1L << bit;
+        }
+      }
+      sums[0] += row[0];
+      if (trackPath) {
+        above[(int) (first >>> 6)] |= 1L << first;
+      }
+    }
+    ++rows;
+  }
+
+  /** Get the quantity of rows added so far. */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Get the maximum sum of a path from the top to the last row added.
+   *
+   * @return the maximum sum.
+   * @throws IllegalStateException if no rows have been added.
+   */
+  public long getMaximum() {
+    return sums[argmax()];
+  }
+
+  /**
+   * Get a path with the maximum sum, from the top to the last row added. If several paths have the maximum sum, this is
+   * one of them.
+   *
+   * @return the column of the path in each row, from the top.
+   * @throws IllegalStateException if the path is not being recorded, or no rows have been added.
+   */
+  public int[] getPath() {
+    if (!trackPath) {
+      throw new IllegalStateException("Path is not recorded");
+    }
+    final int[] path = new int[rows];
+    int column = argmax();
+    for (int r = rows - 1; r >= 0; --r) {
+      path[r] = column;
+      final long bit = ((long) r * (r + 1) >>> 1) + column;
+      if ((above[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        --column;
+      }
+    }
+    return path;
+  }
+
+  /** Get the column of the largest sum in the last row. */
+  private int argmax() {
+    if (rows == 0) {
+      throw new IllegalStateException("No rows have been added");
+    }
+    int best = 0;
+    for (int j = 1; j < rows; ++j) {
+      if (sums[j] > sums[best]) {
+        best = j;
+      }
+    }
+    return best;
+  }
+
+}
@@ -0,0 +1,472 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Thread-safe cache of parsed input files, so a solver that is run many times parses its input once. Entries are keyed
+ * by the location of the input and the form it was parsed into, and are valid as long as the input's last modified
+ * time and size are unchanged: each lookup resolves the input again, and an input that changed is parsed again. The
+ * cache holds at most a fixed quantity of bytes of parsed arrays, evicting the least recently used entries to stay
+ * within it.
+ * </p>
+ * <p>
+ * Optionally, each parsed input is also written to a binary sidecar file in a directory of its own. A later run that
+ * misses in memory reads the sidecar with bulk copies from a mapped buffer instead of parsing the text again. The
+ * sidecar records the modified time and size of the input it was parsed from and is ignored if they do not match, or if
+ * it cannot be read for any reason. Sidecars are only an optimization, so failing to write one is not an error.
+ * </p>
+ * <p>
+ * Each call returns its own copy of the cached arrays, so a caller may modify them without affecting the cache or other
+ * callers. Copying is a bulk memory copy, which is much faster than parsing or reading a sidecar.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputCache {
+
+  /** First four bytes of a sidecar: "EINP". */
+  private static final int MAGIC = 0x45494E50;
+
+  private static final int VERSION = 1;
+
+  /** Magic, version, format, modified time, and size of the source file. */
+  private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + 8;
+
+  /** Approximate size of an array object without its elements. */
+  private static final long ARRAY_OVERHEAD = 16;
+
+  private final long maximumBytes;
+
+  private final Path sidecarDirectory;
+
+  /** Entries in order of access, least recently used first. Guarded by itself. */
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long weight;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder sidecarHits = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs an <code>InputCache</code>.
+   *
+   * @param maximumSize the maximum quantity of bytes of parsed arrays to keep in memory.
+   * @param sidecars directory in which to keep binary copies of parsed input, or null to keep them only in memory.
+   */
+  public InputCache(final long maximumSize, final Path sidecars) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("Maximum size " + maximumSize + " must be positive");
+    }
+    maximumBytes = maximumSize;
+    sidecarDirectory = sidecars;
+  }
+
+  /**
+   * Get every integer in an input.
+   *
+   * @see InputFile#ints()
+   */
+  public int[] ints(final InputSource source) throws IOException {
+    return ((int[]) get(source, Format.INTS)).clone();
+  }
+
+  /**
+   * Get every integer in an input as a long.
+   *
+   * @see InputFile#longs()
+   */
+  public long[] longs(final InputSource source) throws IOException {
+    return ((long[]) get(source, Format.LONGS)).clone();
+  }
+
+  /**
+   * Get the integers on each line of an input.
+   *
+   * @see InputFile#rows()
+   */
+  public int[][] rows(final InputSource source) throws IOException {
+    return copy((int[][]) get(source, Format.ROWS));
+  }
+
+  /**
+   * Get each digit on each line of an input as a separate value.
+   *
+   * @see InputFile#digits()
+   */
+  public int[][] digits(final InputSource source) throws IOException {
+    return copy((int[][]) get(source, Format.DIGITS));
+  }
+
+  /**
+   * Get the bytes of each line of an input.
+   *
+   * @see InputFile#lines()
+   */
+  public byte[][] lines(final InputSource source) throws IOException {
+    return copy((byte[][]) get(source, Format.LINES));
+  }
+
+  /** Copy each row of a cached array. */
+  private static int[][] copy(final int[][] cached) {
+    final int[][] copy = new int[cached.length][];
+    for (int i = 0; i < cached.length; ++i) {
+      copy[i] = cached[i].clone();
+    }
+    return copy;
+  }
+
+  /** Copy each line of a cached array. */
+  private static byte[][] copy(final byte[][] cached) {
+    final byte[][] copy = new byte[cached.length][];
+    for (int i = 0; i < cached.length; ++i) {
+      copy[i] = cached[i].clone();
+    }
+    return copy;
+  }
+
+  /** Remove every entry from memory. Sidecars and the counters are kept. */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+      weight = 0;
+    }
+  }
+
+  /** Get the quantity of entries in memory. */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /** Get the approximate quantity of bytes of parsed arrays in memory. */
+  public long getWeight() {
+    synchronized (entries) {
+      return weight;
+    }
+  }
+
+  /** Get the quantity of lookups that found a current entry in memory. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Get the quantity of lookups that did not find a current entry in memory. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Get the quantity of misses that were read from a sidecar instead of parsed. */
+  public long getSidecarHitCount() {
+    return sidecarHits.sum();
+  }
+
+  /** Get the quantity of entries evicted to stay within the maximum size. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private Object get(final InputSource source, final Format format) throws IOException {
+    final long modified = source.getModified();
+    final long size = source.getSize();
+    final Key key = new Key(source.getLocation(), format);
+    synchronized (entries) {
+      final Entry entry = entries.get(key);
+      if ((entry != null) && (entry.modified == modified) && (entry.size == size)) {
+        hits.increment();
+        return entry.value;
+      }
+    }
+    misses.increment();
+
+    // Parse outside of the lock, so a large file does not block other lookups. If two threads miss on the same file at
+    // the same time, both parse it and the last one stored wins.
+    final Path sidecar = sidecarDirectory == null ? null : sidecarDirectory.resolve(String.format(Locale.ROOT,
+      "%s-%08x.%s.bin", source.getName(), Integer.valueOf(source.getLocation().hashCode()),
+      format.name().toLowerCase(Locale.ROOT)));
+    Object value = sidecar == null ? null : readSidecar(sidecar, format, modified, size);
+    if (value == null) {
+      value = parse(source.open(), format);
+      if (sidecar != null) {
+        writeSidecar(sidecar, format, modified, size, value);
+      }
+    }
+    else {
+      sidecarHits.increment();
+    }
+    put(key, new Entry(modified, size, value, weigh(value)));
+    return value;
+  }
+
+  private void put(final Key key, final Entry entry) {
+    synchronized (entries) {
+      final Entry previous = entries.remove(key);
+      if (previous != null) {
+        weight -= previous.weight;
+      }
+      // An entry larger than the whole cache would only evict everything else and then itself.
+      if (entry.weight > maximumBytes) {
+        return;
+      }
+      entries.put(key, entry);
+      weight += entry.weight;
+      final Iterator<Entry> iterator = entries.values().iterator();
+      while (weight > maximumBytes) {
+        weight -= iterator.next().weight;
+        iterator.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static Object parse(final InputFile input, final Format format) {
+    return switch (format) {
+      case INTS -> input.ints();
+      case LONGS -> input.longs();
+      case ROWS -> input.rows();
+      case DIGITS -> input.digits();
+      case LINES -> input.lines();
+    };
+  }
+
+  /** Get the approximate quantity of bytes used by a parsed array. */
+  static long weigh(final Object value) {
+    if (value instanceof int[] ints) {
+      return ARRAY_OVERHEAD + 4L * ints.length;
+    }
+    else if (value instanceof long[] longs) {
+      return ARRAY_OVERHEAD + 8L * longs.length;
+    }
+    else if (value instanceof int[][] rows) {
+      long total = ARRAY_OVERHEAD + 4L * rows.length;
+      for (final int[] row : rows) {
+        total += ARRAY_OVERHEAD + 4L * row.length;
+      }
+      return total;
+    }
+    final byte[][] lines = (byte[][]) value;
+    long total = ARRAY_OVERHEAD + 4L * lines.length;
+    for (final byte[] line : lines) {
+      total += ARRAY_OVERHEAD + line.length;
+    }
+    return total;
+  }
+
+  /** Read a sidecar, returning null if it is missing, stale, or cannot be read. */
+  private static Object readSidecar(final Path sidecar, final Format format, final long modified, final long size) {
+    if (!Files.isRegularFile(sidecar)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+      final ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if ((buffer.remaining() < HEADER_BYTES) || (buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)
+        || (buffer.getInt() != format.ordinal()) || (buffer.getLong() != modified) || (buffer.getLong() != size)) {
+        return null;
+      }
+      return decode(buffer, format);
+    }
+    catch (final IOException | RuntimeException ex) {
+      // A truncated or corrupt sidecar is parsed from the text again and overwritten.
+      return null;
+    }
+  }
+
+  private static Object decode(final ByteBuffer buffer, final Format format) {
+    final int count = checkLength(buffer.getInt(), buffer.remaining() / (format == Format.LONGS ? 8 : 4));
+    if (format == Format.LONGS) {
+      final long[] longs = new long[count];
+      buffer.asLongBuffer().get(longs);
+      return longs;
+    }
+    final IntBuffer ints = buffer.asIntBuffer();
+    if (format == Format.INTS) {
+      final int[] values = new int[count];
+      ints.get(values);
+      return values;
+    }
+    final int[] lengths = new int[count];
+    ints.get(lengths);
+    if (format == Format.LINES) {
+      buffer.position(buffer.position() + 4 * count);
+      final byte[][] lines = new byte[count][];
+      for (int i = 0; i < count; ++i) {
+        lines[i] = new byte[checkLength(lengths[i], buffer.remaining())];
+        buffer.get(lines[i]);
+      }
+      return lines;
+    }
+    final int[][] rows = new int[count][];
+    for (int i = 0; i < count; ++i) {
+      rows[i] = new int[checkLength(lengths[i], ints.remaining())];
+      ints.get(rows[i]);
+    }
+    return rows;
+  }
+
+  /** Check a length read from a sidecar before allocating an array, so a corrupt one cannot exhaust the heap. */
+  private static int checkLength(final int length, final int available) {
+    if ((length < 0) || (length > available)) {
+      throw new IllegalStateException("Invalid length " + length);
+    }
+    return length;
+  }
+
+  /** Write a sidecar next to any others, replacing it atomically so a reader never sees part of one. */
+  private static void writeSidecar(final Path sidecar, final Format format, final long modified, final long size,
+    final Object value) {
+    if (HEADER_BYTES + weigh(value) > Integer.MAX_VALUE) {
+      return;
+    }
+    final ByteBuffer buffer = encode(value, format, modified, size);
+    Path part = null;
+    try {
+      Files.createDirectories(sidecar.getParent());
+      part = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".part");
+      try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      try {
+        Files.move(part, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch (final AtomicMoveNotSupportedException ex) {
+        Files.move(part, sidecar, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (final IOException ex) {
+      // Without the sidecar, the next run parses the text again, which is correct, just slower.
+      try {
+        if (part != null) {
+          Files.deleteIfExists(part);
+        }
+      }
+      catch (final IOException ignored) {
+        // Nothing more can be done.
+      }
+    }
+  }
+
+  private static ByteBuffer encode(final Object value, final Format format, final long modified, final long size) {
+    final ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + weigh(value)));
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(format.ordinal()).putLong(modified).putLong(size);
+    if (value instanceof int[] ints) {
+      buffer.putInt(ints.length);
+      buffer.asIntBuffer().put(ints);
+      buffer.position(buffer.position() + 4 * ints.length);
+    }
+    else if (value instanceof long[] longs) {
+      buffer.putInt(longs.length);
+      buffer.asLongBuffer().put(longs);
+      buffer.position(buffer.position() + 8 * longs.length);
+    }
+    else if (value instanceof int[][] rows) {
+      buffer.putInt(rows.length);
+      for (final int[] row : rows) {
+        buffer.putInt(row.length);
+      }
+      for (final int[] row : rows) {
+        buffer.asIntBuffer().put(row);
+        buffer.position(buffer.position() + 4 * row.length);
+      }
+    }
+    else {
+      final byte[][] lines = (byte[][]) value;
+      buffer.putInt(lines.length);
+      for (final byte[] line : lines) {
+        buffer.putInt(line.length);
+      }
+      for (final byte[] line : lines) {
+        buffer.put(line);
+      }
+    }
+    return buffer.flip();
+  }
+
+  /** Forms into which a file can be parsed. */
+  private static enum Format {
+    INTS, LONGS, ROWS, DIGITS, LINES
+  }
+
+  /** The location of an input and the form it was parsed into. */
+  private static final class Key {
+
+    private final String location;
+
+    private final Format format;
+
+    Key(final String where, final Format form) {
+      location = where;
+      format = form;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, format);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return (obj instanceof Key other) && location.equals(other.location) && (format == other.format);
+    }
+  }
+
+  /** Parsed input and the attributes of the input it was parsed from. */
+  private static final class Entry {
+
+    private final long modified;
+
+    private final long size;
+
+    private final Object value;
+
+    private final long weight;
+
+    Entry(final long modifiedTime, final long fileSize, final Object parsed, final long bytes) {
+      modified = modifiedTime;
+      size = fileSize;
+      value = parsed;
+      weight = bytes;
+    }
+  }
+
+}
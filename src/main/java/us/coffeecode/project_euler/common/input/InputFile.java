@@ -0,0 +1,315 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Text input for a solver, parsed directly from its bytes into primitive arrays. No string is created for a token or a
+ * line, so parsing costs little more than reading the bytes once. Files are memory mapped in segments of up to a
+ * gigabyte, and the parser carries its state from one segment to the next, so the size of a file is limited only by the
+ * size of the arrays parsed from it. Rows can also be streamed through a single reused buffer, which has no such limit.
+ * </p>
+ * <p>
+ * Integers are maximal runs of ASCII digits, optionally preceded by a minus sign. Every other byte separates them, so
+ * the same methods read values separated by commas, spaces, or line breaks. Lines end with a line feed, optionally
+ * preceded by a carriage return. Lines with nothing to parse are skipped.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputFile {
+
+  /** Largest region of a file mapped as one buffer. */
+  private static final int MAX_SEGMENT = 1 << 30;
+
+  /** Values up to this can have any digit appended without overflow. */
+  private static final long MAX_PREFIX = (Long.MAX_VALUE - 9) / 10;
+
+  private final ByteBuffer[] segments;
+
+  private InputFile(final ByteBuffer[] buffers) {
+    segments = buffers;
+  }
+
+  /**
+   * Map a file into memory.
+   *
+   * @param path the file.
+   * @return the input.
+   * @throws IOException if the file cannot be read.
+   */
+  public static InputFile map(final Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final ByteBuffer[] buffers = new ByteBuffer[(int) ((size + MAX_SEGMENT - 1) / MAX_SEGMENT)];
+      for (int i = 0; i < buffers.length; ++i) {
+        final long position = (long) i * MAX_SEGMENT;
+        buffers[i] = channel.map(MapMode.READ_ONLY, position, Math.min(MAX_SEGMENT, size - position));
+      }
+      return new InputFile(buffers);
+    }
+  }
+
+  /**
+   * Wrap bytes that are already in memory.
+   *
+   * @param buffer the bytes between its position and limit. Its position and limit are not modified.
+   * @return the input.
+   */
+  public static InputFile wrap(final ByteBuffer buffer) {
+    return new InputFile(new ByteBuffer[] { buffer });
+  }
+
+  /** Get every integer in the input. */
+  public int[] ints() {
+    final IntCollector collector = new IntCollector();
+    scan(false, collector);
+    return collector.toArray();
+  }
+
+  /** Get every integer in the input as a long. */
+  public long[] longs() {
+    final LongCollector collector = new LongCollector();
+    scan(false, collector);
+    return collector.toArray();
+  }
+
+  /** Get the integers on each line. */
+  public int[][] rows() {
+    final List<int[]> rows = new ArrayList<>();
+    forEachRow((row, length) -> rows.add(Arrays.copyOf(row, length)));
+    return rows.toArray(new int[rows.size()][]);
+  }
+
+  /** Get each digit on each line as a separate value, for example to read numbers too long for a long. */
+  public int[][] digits() {
+    final List<int[]> rows = new ArrayList<>();
+    scan(true, new RowCollector((row, length) -> rows.add(Arrays.copyOf(row, length))));
+    return rows.toArray(new int[rows.size()][]);
+  }
+
+  /**
+   * Stream the integers on each line through one buffer that is reused for every line, so memory does not grow with the
+   * quantity of lines.
+   *
+   * @param action receives each line. It must not keep a reference to the buffer.
+   */
+  public void forEachRow(final RowConsumer action) {
+    scan(false, new RowCollector(action));
+  }
+
+  /** Get the bytes of each line, without the line terminator. */
+  public byte[][] lines() {
+    final List<byte[]> lines = new ArrayList<>();
+    byte[] line = new byte[64];
+    int length = 0;
+    for (final ByteBuffer segment : segments) {
+      final int limit = segment.limit();
+      for (int i = segment.position(); i < limit; ++i) {
+        final byte b = segment.get(i);
+        if (b == '\n') {
+          length = addLine(lines, line, length);
+        }
+        else {
+          if (length == line.length) {
+            line = Arrays.copyOf(line, length << 1);
+          }
+          line[length++] = b;
+        }
+      }
+    }
+    addLine(lines, line, length);
+    return lines.toArray(new byte[lines.size()][]);
+  }
+
+  /** Add a line unless it is empty, returning the length of the next line. */
+  private static int addLine(final List<byte[]> lines, final byte[] line, final int length) {
+    final int end = ((length > 0) && (line[length - 1] == '\r')) ? length - 1 : length;
+    if (end > 0) {
+      lines.add(Arrays.copyOf(line, end));
+    }
+    return 0;
+  }
+
+  /**
+   * Parse every integer in the input.
+   *
+   * @param digits whether each digit is a separate value.
+   * @param handler receives the values and the ends of lines that had values.
+   */
+  private void scan(final boolean digits, final ValueHandler handler) {
+    long value = 0;
+    boolean number = false;
+    boolean negative = false;
+    boolean line = false;
+    for (final ByteBuffer segment : segments) {
+      final int limit = segment.limit();
+      for (int i = segment.position(); i < limit; ++i) {
+        final int b = segment.get(i);
+        if ((b >= '0') && (b <= '9')) {
+          if (digits) {
+            handler.value(b - '0');
+            line = true;
+          }
+          else {
+            if ((value > MAX_PREFIX) && ((value > Long.MAX_VALUE / 10) || (value * 10 > Long.MAX_VALUE - (b - '0')))) {
+              throw new NumberFormatException("Integer does not fit in a long");
+            }
+            value = value * 10 + (b - '0');
+            number = true;
+          }
+        }
+        else {
+          if (number) {
+            handler.value(negative ? -value : value);
+            value = 0;
+            number = false;
+            line = true;
+          }
+          negative = (b == '-');
+          if ((b == '\n') && line) {
+            handler.endLine();
+            line = false;
+          }
+        }
+      }
+    }
+    if (number) {
+      handler.value(negative ? -value : value);
+      line = true;
+    }
+    if (line) {
+      handler.endLine();
+    }
+  }
+
+  /** Check that a parsed value fits in an int. */
+  private static int toInt(final long value) {
+    if ((int) value != value) {
+      throw new NumberFormatException("Integer " + value + " does not fit in an int");
+    }
+    return (int) value;
+  }
+
+  /** Receives the integers on one line. */
+  @FunctionalInterface
+  public static interface RowConsumer {
+
+    /**
+     * Receive one line.
+     *
+     * @param row buffer containing the integers on the line. It is reused for the next line.
+     * @param length the quantity of integers on the line.
+     */
+    void accept(int[] row, int length);
+  }
+
+  /** Receives values as they are parsed. */
+  private static interface ValueHandler {
+
+    void value(long value);
+
+    default void endLine() {
+      // Most handlers ignore lines.
+    }
+  }
+
+  /** Collects ints into a growable array. */
+  private static final class IntCollector
+  implements ValueHandler {
+
+    private int[] values = new int[1 << 10];
+
+    private int size;
+
+    @Override
+    public void value(final long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      values[size++] = toInt(value);
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /** Collects longs into a growable array. */
+  private static final class LongCollector
+  implements ValueHandler {
+
+    private long[] values = new long[1 << 10];
+
+    private int size;
+
+    @Override
+    public void value(final long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size << 1);
+      }
+      values[size++] = value;
+    }
+
+    long[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /** Collects the ints on each line into a reused buffer, passing it on at the end of each line. */
+  private static final class RowCollector
+  implements ValueHandler {
+
+    private final RowConsumer action;
+
+    private int[] row = new int[64];
+
+    private int length;
+
+    RowCollector(final RowConsumer consumer) {
+      action = consumer;
+    }
+
+    @Override
+    public void value(final long value) {
+      if (length == row.length) {
+        row = Arrays.copyOf(row, length << 1);
+      }
+      row[length++] = toInt(value);
+    }
+
+    @Override
+    public void endLine() {
+      action.accept(row, length);
+      length = 0;
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * <p>
+ * Where an input file comes from: a file in the file system, or a resource on the classpath, which may be inside a JAR.
+ * A source identifies its input by a location, which is the same for every lookup of the same input, and records when
+ * it was last modified and its size, so the input can be cached until it changes.
+ * </p>
+ * <p>
+ * Resources that are files, as when running from the build directory, are memory mapped. Resources stored in a JAR
+ * without compression are read directly from the mapped JAR, without copying them. Any other resource is read into
+ * memory through the class loader.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputSource {
+
+  private final String location;
+
+  private final String name;
+
+  private final long modified;
+
+  private final long size;
+
+  private final Opener opener;
+
+  private InputSource(final String where, final String fileName, final long lastModified, final long bytes,
+    final Opener open) {
+    location = where;
+    name = fileName;
+    modified = lastModified;
+    size = bytes;
+    opener = open;
+  }
+
+  /**
+   * Get the source for a file in the file system.
+   *
+   * @param path the file.
+   * @return the source.
+   * @throws IOException if the file's attributes cannot be read.
+   */
+  public static InputSource of(final Path path) throws IOException {
+    final Path file = path.toAbsolutePath().normalize();
+    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    return new InputSource(file.toString(), file.getFileName().toString(), attributes.lastModifiedTime().toMillis(),
+      attributes.size(), () -> InputFile.map(file));
+  }
+
+  /**
+   * Get the source for a resource on the classpath, or for a file in the file system if there is no such resource.
+   *
+   * @param loader the class loader that finds the resource.
+   * @param resource the name of the resource.
+   * @param fallback the file to use if the resource is not found.
+   * @return the source.
+   * @throws IOException if neither the resource nor the file can be read.
+   */
+  public static InputSource resolve(final ClassLoader loader, final String resource, final Path fallback)
+    throws IOException {
+    final URL url = loader.getResource(resource);
+    if (url == null) {
+      return of(fallback);
+    }
+    final String fileName = resource.substring(resource.lastIndexOf('/') + 1);
+    try {
+      if ("file".equals(url.getProtocol())) {
+        return of(Path.of(url.toURI()));
+      }
+      final URLConnection connection = url.openConnection();
+      if ((connection instanceof JarURLConnection jarConnection)
+        && "file".equals(jarConnection.getJarFileURL().getProtocol())) {
+        final Path jar = Path.of(jarConnection.getJarFileURL().toURI());
+        final ByteBuffer stored = MappedJar.find(jar, jarConnection.getEntryName());
+        if (stored != null) {
+          return new InputSource(jar + "!/" + jarConnection.getEntryName(), fileName,
+            Files.getLastModifiedTime(jar).toMillis(), stored.remaining(), () -> InputFile.wrap(stored));
+        }
+      }
+      // A compressed entry, or a resource from some other kind of class loader. It is only read if it is parsed.
+      return new InputSource(url.toString(), fileName, connection.getLastModified(), connection.getContentLengthLong(),
+        () -> {
+          try (InputStream in = url.openStream()) {
+            return InputFile.wrap(ByteBuffer.wrap(in.readAllBytes()));
+          }
+        });
+    }
+    catch (final URISyntaxException ex) {
+      throw new IOException("Invalid resource URL " + url, ex);
+    }
+  }
+
+  /** Get a description of where the input is, which is the same for every source of the same input. */
+  public String getLocation() {
+    return location;
+  }
+
+  /** Get the file name of the input. */
+  public String getName() {
+    return name;
+  }
+
+  /** Get the time the input was last modified, in milliseconds since the epoch, or zero if it is unknown. */
+  public long getModified() {
+    return modified;
+  }
+
+  /** Get the size of the input in bytes. */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Open the input for parsing.
+   *
+   * @return the input.
+   * @throws IOException if the input cannot be read.
+   */
+  public InputFile open() throws IOException {
+    return opener.open();
+  }
+
+  /** Opens the input. */
+  @FunctionalInterface
+  private static interface Opener {
+
+    InputFile open() throws IOException;
+  }
+
+}
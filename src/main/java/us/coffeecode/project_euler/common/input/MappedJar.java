@@ -0,0 +1,171 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * A JAR file mapped into memory, with an index of the entries stored in it without compression. The bytes of such an
+ * entry are a contiguous region of the file, so reading one is a slice of the mapped buffer, with no copy and no
+ * inflation. Compressed entries are not indexed: they must be read through the class loader.
+ * </p>
+ * <p>
+ * The index is built from the ZIP central directory, whose records give each entry's compression method, size, and the
+ * offset of its local header, which precedes the data. Archives that need the ZIP64 extensions are not indexed. Mapped
+ * JARs are shared, and mapped again only if the file's last modified time changes.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+final class MappedJar {
+
+  private static final ConcurrentMap<Path, MappedJar> JARS = new ConcurrentHashMap<>();
+
+  private static final int END_SIGNATURE = 0x06054b50;
+
+  private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+  private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+  /** Size of the end of central directory record, without its comment. */
+  private static final int END_BYTES = 22;
+
+  private static final int CENTRAL_BYTES = 46;
+
+  private static final int LOCAL_BYTES = 30;
+
+  /** Value of a field whose real value is in a ZIP64 record. */
+  private static final long ZIP64 = 0xFFFFFFFFL;
+
+  private static final int STORED = 0;
+
+  private final long modified;
+
+  /** Each entry stored without compression, as a read-only slice of the mapped file. */
+  private final Map<String, ByteBuffer> entries;
+
+  private MappedJar(final long lastModified, final Map<String, ByteBuffer> stored) {
+    modified = lastModified;
+    entries = stored;
+  }
+
+  /**
+   * Get the bytes of an entry in a JAR file, if it is stored without compression.
+   *
+   * @param jar the JAR file.
+   * @param name the name of the entry.
+   * @return a read-only buffer of the entry's bytes, or null if there is no such entry, it is compressed, or the
+   * archive cannot be indexed.
+   * @throws IOException if the file cannot be read.
+   */
+  static ByteBuffer find(final Path jar, final String name) throws IOException {
+    final long lastModified = Files.getLastModifiedTime(jar).toMillis();
+    MappedJar mapped = JARS.get(jar);
+    if ((mapped == null) || (mapped.modified != lastModified)) {
+      mapped = new MappedJar(lastModified, index(jar));
+      JARS.put(jar, mapped);
+    }
+    final ByteBuffer entry = mapped.entries.get(name);
+    return entry == null ? null : entry.duplicate();
+  }
+
+  /** Map a JAR file and index its stored entries. */
+  static Map<String, ByteBuffer> index(final Path jar) throws IOException {
+    final ByteBuffer file;
+    try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        return Map.of();
+      }
+      file = channel.map(MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    final int end = findEnd(file);
+    if (end < 0) {
+      return Map.of();
+    }
+    final int count = Short.toUnsignedInt(file.getShort(end + 10));
+    final long directory = Integer.toUnsignedLong(file.getInt(end + 16));
+    if ((count == 0xFFFF) || (directory == ZIP64)) {
+      return Map.of();
+    }
+
+    final Map<String, ByteBuffer> stored = new HashMap<>();
+    int record = (int) directory;
+    for (int i = 0; i < count; ++i) {
+      if ((record + CENTRAL_BYTES > file.limit()) || (file.getInt(record) != CENTRAL_SIGNATURE)) {
+        return Map.of();
+      }
+      final int method = Short.toUnsignedInt(file.getShort(record + 10));
+      final long compressed = Integer.toUnsignedLong(file.getInt(record + 20));
+      final long size = Integer.toUnsignedLong(file.getInt(record + 24));
+      final int nameLength = Short.toUnsignedInt(file.getShort(record + 28));
+      final int extraLength = Short.toUnsignedInt(file.getShort(record + 30));
+      final int commentLength = Short.toUnsignedInt(file.getShort(record + 32));
+      final long local = Integer.toUnsignedLong(file.getInt(record + 42));
+      if ((method == STORED) && (compressed == size) && (size != ZIP64) && (local != ZIP64)) {
+        final byte[] name = new byte[nameLength];
+        file.get(record + CENTRAL_BYTES, name);
+        final ByteBuffer data = slice(file, (int) local, (int) size);
+        if (data != null) {
+          stored.put(new String(name, StandardCharsets.UTF_8), data);
+        }
+      }
+      record += CENTRAL_BYTES + nameLength + extraLength + commentLength;
+    }
+    return stored;
+  }
+
+  /** Find the end of central directory record, which is followed only by a comment of up to 64 KB. */
+  private static int findEnd(final ByteBuffer file) {
+    final int last = file.limit() - END_BYTES;
+    for (int i = last; i >= Math.max(0, last - 0xFFFF); --i) {
+      if (file.getInt(i) == END_SIGNATURE) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Get the data of an entry from its local header, which repeats the name and may have a different extra field. */
+  private static ByteBuffer slice(final ByteBuffer file, final int local, final int size) {
+    if ((local + LOCAL_BYTES > file.limit()) || (file.getInt(local) != LOCAL_SIGNATURE)) {
+      return null;
+    }
+    final int start = local + LOCAL_BYTES + Short.toUnsignedInt(file.getShort(local + 26))
+      + Short.toUnsignedInt(file.getShort(local + 28));
+    if ((long) start + size > file.limit()) {
+      return null;
+    }
+    return file.slice(start, size).asReadOnlyBuffer();
+  }
+
+}
@@ -0,0 +1,96 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * <p>
+ * Prime provider backed by a file cache in the compact format described in {@link PrimeFile}. This holds the same
+ * primes as the {@link FileCachePrimeProvider} in about a quarter of the space, which reduces the disk footprint and
+ * the amount of the page cache used by the mapping. In exchange, primes need to be decoded when they are requested, and
+ * buffer views are copies rather than views of the file.
+ * </p>
+ * <p>
+ * If the file does not exist, it is created in the compact format by sieving primes directly into the file. A file in
+ * the original format can also be read by this class.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public class CompactFileCachePrimeProvider
+implements IPrimeProvider {
+
+  /** Name of the file containing prime numbers. */
+  private final Path primeFile;
+
+  /** The opened file, or null if it is not opened yet. */
+  private volatile PrimeFile file;
+
+  public CompactFileCachePrimeProvider(final Path path) {
+    primeFile = path;
+  }
+
+  @Override
+  public int[] getFirstNPrimes(final int quantityOfPrimes) {
+    if (quantityOfPrimes < 0) {
+      throw new IllegalArgumentException("Quantity of primes must be nonnegative.");
+    }
+    final PrimeFile primes = getFile();
+    if (primes.size() < quantityOfPrimes) {
+      throw new InsufficientPrimesAvailableException(
+        "Not enough primes available. Requested " + quantityOfPrimes + ", only " + primes.size() + " available.");
+    }
+    final int[] result = new int[quantityOfPrimes];
+    primes.get(result);
+    return result;
+  }
+
+  @Override
+  public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+    return getFirstNPrimes(getFile().countEqualToOrLessThan(ceiling));
+  }
+
+  /** Get the prime file, creating and opening it the first time this is called. */
+  private PrimeFile getFile() {
+    PrimeFile primes = file;
+    if (primes == null) {
+      synchronized (this) {
+        primes = file;
+        if (primes == null) {
+          try {
+            if (!Files.exists(primeFile)) {
+              PrimeFile.writeCompact(primeFile, FileCachePrimeProvider.CEILING);
+            }
+            primes = PrimeFile.open(primeFile);
+          }
+          catch (final IOException ex) {
+            throw new RuntimeException(ex);
+          }
+          file = primes;
+        }
+      }
+    }
+    return primes;
+  }
+
+}
@@ -0,0 +1,95 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * Prime provider that delegates to another provider and counts the primes it returns. Counts are kept per thread, so
+ * when several solvers run concurrently on different threads, each one's requests can be measured separately by reading
+ * the count before and after.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public class CountingPrimeProvider
+implements IPrimeProvider {
+
+  private final IPrimeProvider delegate;
+
+  private final ThreadLocal<long[]> counts = ThreadLocal.withInitial(() -> new long[1]);
+
+  /**
+   * Constructs a <code>CountingPrimeProvider</code>.
+   *
+   * @param provider the provider that supplies the primes.
+   */
+  public CountingPrimeProvider(final IPrimeProvider provider) {
+    delegate = provider;
+  }
+
+  /** Get the total quantity of primes returned to the current thread. */
+  public long getPrimesRequested() {
+    return counts.get()[0];
+  }
+
+  @Override
+  public int[] getFirstNPrimes(final int quantityOfPrimes) {
+    return count(delegate.getFirstNPrimes(quantityOfPrimes));
+  }
+
+  @Override
+  public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+    return count(delegate.getPrimesEqualToOrLessThan(ceiling));
+  }
+
+  @Override
+  public IntBuffer getFirstNPrimesBuffer(final int quantityOfPrimes) {
+    return count(delegate.getFirstNPrimesBuffer(quantityOfPrimes));
+  }
+
+  @Override
+  public IntBuffer getPrimesEqualToOrLessThanBuffer(final int ceiling) {
+    return count(delegate.getPrimesEqualToOrLessThanBuffer(ceiling));
+  }
+
+  @Override
+  public IntStream streamPrimesBetween(final int from, final int to) {
+    // The stream is sized, so its primes are counted up front on the thread that requested them.
+    final Spliterator.OfInt primes = delegate.streamPrimesBetween(from, to).spliterator();
+    counts.get()[0] += Math.max(0, primes.getExactSizeIfKnown());
+    return StreamSupport.intStream(primes, false);
+  }
+
+  private int[] count(final int[] primes) {
+    counts.get()[0] += primes.length;
+    return primes;
+  }
+
+  private IntBuffer count(final IntBuffer primes) {
+    counts.get()[0] += primes.remaining();
+    return primes;
+  }
+
+}
@@ -21,18 +21,49 @@ import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardOpenOption.WRITE;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
+import java.nio.IntBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
- * Prime provider backed by a file cache. If the file cache does not exist when this class needs to return primes, it
- * calls on the {@link SievePrimeProvider} to generate the first 50,000,000 primes and saves them to a file. Then
- * whenever it needs to return primes, it memory maps the file and copies the required number of primes out of it.
+ * Prime provider backed by a file cache. If the file cache does not hold the primes requested, this calls on another
+ * prime provider to generate them and saves them to the file, which grows on demand. Then whenever it needs to return
+ * primes, it copies the required number of primes out of a memory mapping of the file. The file is mapped once and the
+ * mapping is shared by all requests, including the buffer views which read the primes directly from the mapping without
+ * copying them onto the heap, until a request needs more primes than it holds.
+ * </p>
+ * <p>
+ * The file starts with every prime up to {@value #MIN_CEILING}, or up to the first request if that is higher, so small
+ * problems never wait for primes they do not need. A request beyond the end of the file extends it to at least twice
+ * its ceiling, so a series of growing requests extends it only a few times. With a {@link ParallelSievePrimeProvider},
+ * only the range above the old ceiling is sieved, and its primes are appended to a copy of the file. Other generators
+ * produce every prime up to the new ceiling, and only those above the old ceiling are appended.
+ * </p>
+ * <p>
+ * The file is generated on a background thread, which {@link #warmUp()} starts without waiting for it. Requests made
+ * while it runs wait only until the primes they need have been written, not for the whole file. With a
+ * {@link ParallelSievePrimeProvider}, primes are written in ascending order a wave of chunks at a time, so small
+ * requests are answered almost immediately. Other generators produce every prime at once, so requests wait for all of
+ * them.
+ * </p>
+ * <p>
+ * The file is in the checked format described in {@link PrimeFile}, and its header and checksum are verified before it
+ * is used. A file that is missing, truncated, corrupt, or in an older format is generated again. Generating or
+ * extending the file takes an exclusive lock on a lock file next to it, so if several processes start at once, one
+ * generates the file while the others wait for it and then use it. The primes are written to a temporary file, which
+ * is flushed to disk and then renamed once it is complete, so an interrupted build never leaves a partial cache behind.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -43,92 +74,430 @@ import java.nio.file.Path;
 public class FileCachePrimeProvider
 implements IPrimeProvider {
 
+  /** The 50,000,000th prime. This many primes is enough for every problem so far. */
+  static final int CEILING = 982_451_653;
+
+  /** Minimum ceiling of a new file. Sieving this far takes a few milliseconds. */
+  static final int MIN_CEILING = 1 << 20;
+
+  /** Quantity of primes that fit in an <code>int</code>. */
+  static final int MAX_PRIMES = 105_097_565;
+
+  /**
+   * Locks held by this process on each lock file. A file lock is held on behalf of the whole process, so threads in it
+   * also need to exclude each other.
+   */
+  private static final ConcurrentMap<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
   /** Name of the file containing prime numbers. */
   private final Path primeFile;
 
+  /** Prime provider used to generate the primes if the file does not hold them or is not valid. */
+  private final IPrimeProvider generator;
+
+  /** Largest value to which the file may be extended. */
+  private final int limit;
+
+  /** The mapped file, or null if it is not mapped yet. */
+  private volatile Cache cache;
+
+  /** The build in progress, or null if there is none. Guarded by this. */
+  private Build build;
+
   public FileCachePrimeProvider(final Path path) {
+    this(path, new SievePrimeProvider());
+  }
+
+  public FileCachePrimeProvider(final Path path, final IPrimeProvider primeGenerator) {
+    this(path, primeGenerator, Integer.MAX_VALUE);
+  }
+
+  /** Constructs a provider that never extends the file beyond a limit, so tests can keep the file small. */
+  FileCachePrimeProvider(final Path path, final IPrimeProvider primeGenerator, final int ceilingLimit) {
     primeFile = path;
+    generator = primeGenerator;
+    limit = ceilingLimit;
+  }
+
+  /**
+   * Start verifying the file on a background thread, generating it if it is not valid, and return without waiting. This
+   * does nothing if the file is already mapped or is being verified or generated.
+   */
+  public void warmUp() {
+    synchronized (this) {
+      if ((cache == null) && (build == null)) {
+        startBuild(0, 0);
+      }
+    }
   }
 
   @Override
   public int[] getFirstNPrimes(final int quantityOfPrimes) {
-    try {
-      ensureFileExists();
-    }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
-    }
+    return toArray(getFirstNPrimesBuffer(quantityOfPrimes));
+  }
+
+  @Override
+  public int[] getPrimesEqualToOrLessThan(final int ceilingValue) {
+    return toArray(getPrimesEqualToOrLessThanBuffer(ceilingValue));
+  }
+
+  @Override
+  public IntBuffer getFirstNPrimesBuffer(final int quantityOfPrimes) {
     if (quantityOfPrimes < 0) {
       throw new IllegalArgumentException("Quantity of primes must be nonnegative.");
     }
-    int[] primes = new int[0];
-    if (quantityOfPrimes == 0) {
-      return primes;
+    final IntBuffer primes = quantityOfPrimes > MAX_PRIMES ? null : getPrimes(quantityOfPrimes, 0);
+    if ((primes == null) || (primes.limit() < quantityOfPrimes)) {
+      throw new InsufficientPrimesAvailableException("Not enough primes available. Requested " + quantityOfPrimes
+        + ", only " + (primes == null ? MAX_PRIMES : primes.limit()) + " available.");
+    }
+    return primes.slice(0, quantityOfPrimes);
+  }
+
+  @Override
+  public IntBuffer getPrimesEqualToOrLessThanBuffer(final int ceilingValue) {
+    final IntBuffer primes = getPrimes(0, ceilingValue);
+    return primes.slice(0, countPrimesEqualToOrLessThan(primes, ceilingValue));
+  }
+
+  /** Wait for a build in progress to finish, if there is one. */
+  void awaitBuild() throws InterruptedException {
+    final Build b;
+    synchronized (this) {
+      b = build;
+    }
+    if (b != null) {
+      b.await(Long.MAX_VALUE, Integer.MAX_VALUE);
     }
-    try (final FileChannel channel = FileChannel.open(primeFile)) {
-      final long intsAvailable = channel.size() / Integer.BYTES;
-      if (intsAvailable < quantityOfPrimes) {
-        throw new InsufficientPrimesAvailableException(
-          "Not enough primes available. Requested " + quantityOfPrimes + ", only " + intsAvailable + " available.");
+  }
+
+  private static int[] toArray(final IntBuffer view) {
+    final int[] primes = new int[view.remaining()];
+    view.get(primes);
+    return primes;
+  }
+
+  /**
+   * Count the primes less than or equal to the ceiling. The primes are sorted, so this is a binary search for the first
+   * prime greater than the ceiling. The primes are read with absolute gets up to the limit, and the buffer is not
+   * modified.
+   */
+  static int countPrimesEqualToOrLessThan(final IntBuffer primes, final int ceilingValue) {
+    int low = 0;
+    int high = primes.limit();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (primes.get(mid) <= ceilingValue) {
+        low = mid + 1;
       }
-      // This cannot fail due to the check above.
-      final int quantityOfInts = (int) intsAvailable;
-      primes = new int[Math.min(quantityOfPrimes, quantityOfInts)];
-      final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, (long) primes.length * Integer.BYTES);
-      for (int i = 0; i < primes.length; ++i) {
-        primes[i] = buffer.getInt();
+      else {
+        high = mid;
       }
     }
-    catch (final IOException ex) {
-      throw new RuntimeException(ex);
+    return low;
+  }
+
+  /**
+   * Get a value up to which there are at least the given quantity of primes. This uses the inequality
+   * <code>p(n) &lt; n(ln n + ln ln n)</code> for <code>n &gt;= 6</code>, where <code>p(n)</code> is the nth prime.
+   */
+  static int ceilingFor(final long quantity) {
+    if (quantity == 0) {
+      return 0;
     }
-    return primes;
+    else if (quantity < 6) {
+      return 11;
+    }
+    final double n = quantity;
+    final double ln_n = Math.log(n);
+    return (int) Math.min(Integer.MAX_VALUE, Math.ceil(n * (ln_n + Math.log(ln_n))));
   }
 
-  @Override
-  public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+  /**
+   * Get primes in the file: all of them if the file holds at least the given quantity and every prime up to the given
+   * value, or if it is being generated or extended, as soon as those primes are written. Values above the limit are
+   * treated as the limit. The file is verified and mapped into memory the first time this is called, and the same
+   * mapping is shared by every request until the file is extended. Callers must not modify its position or limit: use
+   * absolute reads or a slice.
+   */
+  private IntBuffer getPrimes(final long quantity, final int through) {
+    final int value = Math.min(limit, through);
+    Cache c = cache;
+    if (covers(c, quantity, value)) {
+      return c.primes;
+    }
+    while (true) {
+      final Build b;
+      synchronized (this) {
+        c = cache;
+        if (covers(c, quantity, value)) {
+          return c.primes;
+        }
+        if (build == null) {
+          startBuild(quantity, value);
+        }
+        b = build;
+      }
+      try {
+        // A build that finished without these primes was for a smaller request: start another one.
+        final IntBuffer primes = b.await(quantity, value);
+        if (primes != null) {
+          return primes;
+        }
+      }
+      catch (final InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for primes", ex);
+      }
+    }
+  }
+
+  /**
+   * Get whether a file holds at least the given quantity of primes, or as many as the limit allows, up to the value.
+   */
+  private boolean covers(final Cache c, final long quantity, final int value) {
+    return (c != null) && (c.ceiling >= value) && ((c.primes.limit() >= quantity) || (c.ceiling >= limit));
+  }
+
+  /** Start a background thread that verifies the file, and generates or extends it if it does not hold the primes. */
+  private void startBuild(final long quantity, final int value) {
+    final Build b = new Build(primeFile.resolveSibling(primeFile.getFileName() + ".part"), quantity, value);
+    build = b;
+    final Thread thread = new Thread(() -> runBuild(b), "prime-cache-builder");
+    // The build starts over in the next run if the JVM exits first, so it must not keep the JVM running.
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Verify, generate, or extend the file, and then publish its mapping. */
+  private void runBuild(final Build b) {
     try {
-      ensureFileExists();
+      Cache c = cache;
+      if (c == null) {
+        c = open(primeFile);
+      }
+      if (!covers(c, b.quantity, b.value)) {
+        c = generate(b);
+      }
+      synchronized (this) {
+        cache = c;
+        build = null;
+      }
+      b.finish(null);
     }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
+    catch (final IOException | RuntimeException | Error ex) {
+      // Forget the failed build, so the next request starts another one instead of failing with this one.
+      synchronized (this) {
+        build = null;
+      }
+      b.finish(ex);
     }
-    // If the ceiling is low enough that there are no primes, return an empty array.
-    if (ceiling < 2) {
-      return new int[0];
+  }
+
+  /**
+   * Generate or extend the file while holding the lock on it, move it into place, and return its mapping. If another
+   * process generated or extended the file while this one waited for the lock, use that file instead.
+   */
+  private Cache generate(final Build b) throws IOException {
+    final Path lockFile = primeFile.resolveSibling(primeFile.getFileName() + ".lock");
+    final ReentrantLock localLock = LOCAL_LOCKS.computeIfAbsent(lockFile.toAbsolutePath().normalize(),
+      p -> new ReentrantLock());
+    localLock.lock();
+    try (final FileChannel lockChannel = FileChannel.open(lockFile, CREATE, WRITE);
+      final FileLock fileLock = lockChannel.lock()) {
+      final Cache existing = open(primeFile);
+      if (covers(existing, b.quantity, b.value)) {
+        return existing;
+      }
+      final int floor = existing == null ? 0 : existing.ceiling;
+      final int target = (int) Math.min(limit, Math.max(Math.max(b.value, ceilingFor(b.quantity)),
+        Math.max(MIN_CEILING, 2L * floor)));
+      final long copied = existing == null ? 0 : existing.primes.limit();
+      FileChannel channel = null;
+      try {
+        if (existing == null) {
+          Files.deleteIfExists(b.partFile);
+        }
+        else {
+          Files.copy(primeFile, b.partFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(b.partFile, CREATE, WRITE, READ);
+        b.start(channel, copied, floor);
+        final long start = PrimeFile.CHECKED_HEADER_BYTES + copied * Integer.BYTES;
+        final long quantity;
+        if (generator instanceof ParallelSievePrimeProvider parallel) {
+          // Each chunk of primes is written directly to its offset in the file as soon as it is sieved.
+          quantity = copied + parallel.write(channel, start, floor, target, (primes, through) -> b.progress(copied
+            + primes, through));
+        }
+        else {
+          final int[] primes = generator.getPrimesEqualToOrLessThan(target);
+          final ByteBuffer buffer = ByteBuffer.allocate((int) (primes.length - copied) * Integer.BYTES);
+          buffer.asIntBuffer().put(primes, (int) copied, primes.length - (int) copied);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+          }
+          quantity = primes.length;
+          b.progress(quantity, target);
+        }
+        PrimeFile.writeCheckedHeader(channel, (int) quantity, target);
+        // The primes must reach the disk before the rename does, or a crash could leave a cache with missing primes.
+        channel.force(true);
+        // Readers may still be mapping the temporary file through the open channel, which is unaffected by the move.
+        try {
+          Files.move(b.partFile, primeFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final AtomicMoveNotSupportedException ex) {
+          Files.move(b.partFile, primeFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new Cache(PrimeFile.open(channel));
+      }
+      catch (final IOException | RuntimeException | Error ex) {
+        // Remove the partial file while holding the lock, so it cannot be another process's file, and the next request
+        // starts over.
+        try {
+          if (channel != null) {
+            channel.close();
+          }
+          Files.deleteIfExists(b.partFile);
+        }
+        catch (final IOException cleanup) {
+          ex.addSuppressed(cleanup);
+        }
+        throw ex;
+      }
+    }
+    finally {
+      localLock.unlock();
     }
+  }
 
-    // Get the number of primes to load.
-    int quantityOfPrimes = 0;
-    try (FileChannel channel = FileChannel.open(primeFile)) {
-      // Determine the size of the file channel in integers that is available.
-      long channelSize = Math.min(channel.size(), Integer.MAX_VALUE);
-      final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channelSize);
+  /** Map every prime in a file if it is valid, or return null. */
+  private static Cache open(final Path file) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file)) {
+      final PrimeFile primes = PrimeFile.openChecked(channel);
+      return primes == null ? null : new Cache(primes);
+    }
+    catch (final NoSuchFileException ex) {
+      return null;
+    }
+  }
 
-      // Find the ceiling first, to allow allocating the prime array once without resizing.
-      while (buffer.getInt() <= ceiling) {
-        ++quantityOfPrimes;
-      }
+  /** Map the first quantity of primes written after the header in a channel, or all of them. */
+  private static IntBuffer map(final FileChannel channel, final long quantity) {
+    try {
+      // A single mapping is limited to 2 GiB, which is over 500,000,000 primes.
+      final long available = Math.max(0, channel.size() - PrimeFile.CHECKED_HEADER_BYTES);
+      final long size = Math.min(Math.min(available, Integer.MAX_VALUE), Math.min(quantity, Integer.MAX_VALUE)
+        * Integer.BYTES) & -Integer.BYTES;
+      return channel.map(MapMode.READ_ONLY, PrimeFile.CHECKED_HEADER_BYTES, size).asIntBuffer();
     }
-    catch (final RuntimeException ex) {
-      throw ex;
+    catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
     }
-    catch (final Exception ex) {
-      throw new RuntimeException(ex);
+  }
+
+  /** Every prime in a valid file, and the value up to which they were sieved. */
+  private static final class Cache {
+
+    /** Read-only view of every prime in the file. */
+    final IntBuffer primes;
+
+    final int ceiling;
+
+    Cache(final PrimeFile file) {
+      primes = file.getPrimes();
+      ceiling = file.getCeiling();
     }
-    return getFirstNPrimes(quantityOfPrimes);
   }
 
-  private void ensureFileExists() throws IOException {
-    if (!Files.exists(primeFile)) {
-      // 50,000,000 primes is enough for every problem so far.
-      final int[] primes = new SievePrimeProvider().getPrimesEqualToOrLessThan(982_451_653);
-      try (final FileChannel channel = FileChannel.open(primeFile, CREATE, WRITE, READ)) {
-        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 4 * primes.length);
-        for (int prime : primes) {
-          buffer.putInt(prime);
+  /** Progress of a build, which readers wait on. */
+  private static final class Build {
+
+    final Path partFile;
+
+    /** Quantity of primes requested by the request that started the build. */
+    final long quantity;
+
+    /** Value up to which primes were requested by the request that started the build. */
+    final int value;
+
+    /** Channel to which primes are written, open until the build is over. Guarded by this. */
+    private FileChannel channel;
+
+    /** Quantity of primes written so far. Guarded by this. */
+    private long written;
+
+    /** Every prime up to this value has been written. Guarded by this. */
+    private long through;
+
+    /** Whether the build is over, successfully or not. Guarded by this. */
+    private boolean finished;
+
+    /** What made the build fail, or null. Guarded by this. */
+    private Throwable failure;
+
+    /** Mapping of the primes written so far, or null. Guarded by this. */
+    private IntBuffer view;
+
+    Build(final Path part, final long requestedQuantity, final int requestedValue) {
+      partFile = part;
+      quantity = requestedQuantity;
+      value = requestedValue;
+    }
+
+    /** Start writing primes to a channel, which already holds those copied from the file being extended. */
+    synchronized void start(final FileChannel writing, final long copied, final long copiedThrough) {
+      channel = writing;
+      progress(copied, copiedThrough);
+    }
+
+    synchronized void progress(final long primes, final long upTo) {
+      written = primes;
+      through = upTo;
+      notifyAll();
+    }
+
+    synchronized void finish(final Throwable thrown) {
+      finished = true;
+      failure = thrown;
+      view = null;
+      if (channel != null) {
+        try {
+          channel.close();
+        }
+        catch (final IOException ex) {
+          if (failure == null) {
+            failure = ex;
+          }
         }
       }
+      notifyAll();
+    }
+
+    /**
+     * Wait until the given quantity of primes and every prime up to the given value are written, or the build ends. If
+     * no primes are being written yet, because the file is still being verified or locked, wait for that first.
+     *
+     * @return the primes written so far, or null if the build finished. Its primes are then in the published mapping.
+     */
+    synchronized IntBuffer await(final long requestedQuantity, final long requestedValue)
+      throws InterruptedException {
+      while (!finished && ((channel == null) || (written < requestedQuantity) || (through < requestedValue))) {
+        wait();
+      }
+      if (failure != null) {
+        throw new IllegalStateException("Cannot generate the prime cache", failure);
+      }
+      else if (finished) {
+        return null;
+      }
+      // Remap only when more primes are written than the last mapping covers. Every prime in it is final.
+      if ((view == null) || (view.limit() < written)) {
+        view = map(channel, written);
+      }
+      return view;
     }
   }
+
 }
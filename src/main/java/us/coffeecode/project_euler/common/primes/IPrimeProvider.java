@@ -16,6 +16,10 @@
  */
 package us.coffeecode.project_euler.common.primes;
 
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * Interface for an object that provides prime numbers via implementation-defined means.<br>
  * <br>
@@ -46,4 +50,44 @@ public interface IPrimeProvider {
    * @throws Exception if an error occurs while providing the primes.
    */
   int[] getPrimesEqualToOrLessThan(final int ceiling);
+
+  /**
+   * Provide a read-only view of the first _n_ prime numbers, starting with 2. The buffer's position is zero and its
+   * limit is the quantity of primes. Implementations backed by a file may return a view of the file itself instead of
+   * copying the primes: by default, this wraps the array returned by {@link #getFirstNPrimes(int)}.
+   *
+   * @param quantityOfPrimes the desired number of prime numbers to provide.
+   * @return a read-only buffer containing prime numbers.
+   */
+  default IntBuffer getFirstNPrimesBuffer(final int quantityOfPrimes) {
+    return IntBuffer.wrap(getFirstNPrimes(quantityOfPrimes)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Provide a read-only view of all prime numbers less than or equal to the provided ceiling value, with the same
+   * semantics as {@link #getPrimesEqualToOrLessThan(int)}. The buffer's position is zero and its limit is the quantity
+   * of primes. By default, this wraps the array returned by that method.
+   *
+   * @param ceiling the desired maximum prime value.
+   * @return a read-only buffer containing prime numbers.
+   */
+  default IntBuffer getPrimesEqualToOrLessThanBuffer(final int ceiling) {
+    return IntBuffer.wrap(getPrimesEqualToOrLessThan(ceiling)).asReadOnlyBuffer();
+  }
+
+  /**
+   * Provide a sequential stream of the prime numbers greater than or equal to <code>from</code> and less than or equal
+   * to <code>to</code>, in ascending order. The stream reads the buffer returned by
+   * {@link #getPrimesEqualToOrLessThanBuffer(int)}, so for a provider backed by a file, primes are read straight from
+   * the mapping without an array on the heap. It splits evenly, so call {@link IntStream#parallel()} to sum, filter, or
+   * count many primes on every core.
+   *
+   * @param from the minimum prime value.
+   * @param to the maximum prime value.
+   * @return a stream of prime numbers.
+   */
+  default IntStream streamPrimesBetween(final int from, final int to) {
+    return StreamSupport.intStream(PrimeSpliterator.atLeast(getPrimesEqualToOrLessThanBuffer(to), from), false);
+  }
+
 }
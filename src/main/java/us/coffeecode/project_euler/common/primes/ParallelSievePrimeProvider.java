@@ -0,0 +1,239 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Prime provider that runs the segmented sieve on multiple threads. The range up to the ceiling is split into
+ * independent chunks of several segments each. Every chunk is sieved on a {@link ForkJoinPool} using the same base
+ * primes up to the square root of the ceiling, which are computed once and shared.
+ * </p>
+ * <p>
+ * Chunks are processed in waves a few times larger than the pool's parallelism. Once a wave is sieved, the number of
+ * primes in each chunk is known, which gives each chunk's offset in the output. This allows the
+ * {@link FileCachePrimeProvider} to have each chunk written straight into its position in the file without ever
+ * holding every prime in memory at once.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public class ParallelSievePrimeProvider
+extends SegmentedSievePrimeProvider {
+
+  /** Number of segments sieved by each task. */
+  private static final int CHUNK_SEGMENTS = 32;
+
+  /** Number of consecutive integers covered by each chunk. */
+  private static final long CHUNK_SPAN = (long) CHUNK_SEGMENTS * SEGMENT_BITS << 1;
+
+  /** Number of chunks per wave, as a multiple of the pool's parallelism. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final ForkJoinPool pool;
+
+  /** Constructs a <code>ParallelSievePrimeProvider</code> that uses the common pool. */
+  public ParallelSievePrimeProvider() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /** Constructs a <code>ParallelSievePrimeProvider</code> that uses the given pool. */
+  public ParallelSievePrimeProvider(final ForkJoinPool forkJoinPool) {
+    pool = forkJoinPool;
+  }
+
+  @Override
+  public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+    if (ceiling < 2) {
+      return new int[0];
+    }
+    final int upperBound = (int) Math.min(ceiling, 1.25506 * ceiling / Math.log(ceiling) + 1);
+    final int[] primes = new int[upperBound];
+    final long found = sieveInWaves(0, ceiling, (chunk, offset) -> System.arraycopy(chunk, 0, primes, (int) offset,
+      chunk.length), null);
+    return found == primes.length ? primes : Arrays.copyOf(primes, (int) found);
+  }
+
+  /**
+   * Write all primes less than or equal to the ceiling to the channel as 32-bit big-endian integers, starting at
+   * position zero. Chunks are written concurrently, each at its own offset.
+   *
+   * @param channel the channel to which to write.
+   * @param ceiling the maximum value to sieve.
+   * @return the number of primes written.
+   * @throws IOException if there is an error writing to the channel.
+   */
+  long write(final FileChannel channel, final int ceiling) throws IOException {
+    return write(channel, 0, 0, ceiling, (primes, through) -> {
+      // No one is waiting for the primes written so far.
+    });
+  }
+
+  /**
+   * Write all primes greater than the floor and less than or equal to the ceiling to the channel as 32-bit big-endian
+   * integers, starting at the given position, and report progress after each wave. Only the range above the floor is
+   * sieved, so primes can be appended to those already in a file. Every prime up to the value reported is in the
+   * channel by the time the listener is called, so readers can use them before the rest are sieved.
+   *
+   * @param channel the channel to which to write.
+   * @param start the position of the first prime in the channel, which leaves room for a header or existing primes.
+   * @param floor every prime written is greater than this.
+   * @param ceiling the maximum value to sieve.
+   * @param listener called after each wave is written with the quantity of primes written by this call.
+   * @return the number of primes written.
+   * @throws IOException if there is an error writing to the channel.
+   */
+  long write(final FileChannel channel, final long start, final int floor, final int ceiling,
+    final WaveListener listener) throws IOException {
+    try {
+      return sieveInWaves(floor, ceiling, (chunk, offset) -> {
+        final ByteBuffer buffer = ByteBuffer.allocate(chunk.length * Integer.BYTES);
+        buffer.asIntBuffer().put(chunk);
+        long position = start + offset * Integer.BYTES;
+        try {
+          while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+          }
+        }
+        catch (final IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }, listener);
+    }
+    catch (final UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Sieve every chunk above the floor up to the ceiling, passing each chunk's primes to the consumer along with the
+   * index of its first prime. The consumer may be called concurrently. The listener, if any, is called after the
+   * consumer has finished with each wave.
+   *
+   * @return the total number of primes found.
+   */
+  private long sieveInWaves(final int floor, final int ceiling, final ChunkConsumer consumer,
+    final WaveListener listener) {
+    if ((ceiling < 2) || (floor >= ceiling)) {
+      return 0;
+    }
+    final int[] basePrimes = getBasePrimes(ceiling);
+    final long end = ceiling + 1L;
+    final long low = firstOdd(floor);
+    final boolean two = floor < 2;
+    // There is always at least one chunk, since the first chunk holds two even when there are no odd primes.
+    final int chunks = (int) Math.max(1, (end - low + CHUNK_SPAN - 1) / CHUNK_SPAN);
+    final int waveSize = pool.getParallelism() * CHUNKS_PER_THREAD;
+
+    long found = 0;
+    for (int wave = 0; wave < chunks; wave += waveSize) {
+      final int first = wave;
+      final int last = Math.min(chunks, wave + waveSize);
+      // Parallel streams submitted to a pool run their tasks in that pool.
+      final List<int[]> sieved = pool.submit(() -> IntStream.range(first, last).parallel().mapToObj(
+        i -> sieveChunk(basePrimes, low + i * CHUNK_SPAN, end, two && (i == 0))).toList()).join();
+      final long[] offsets = new long[sieved.size()];
+      for (int i = 0; i < offsets.length; ++i) {
+        offsets[i] = found;
+        found += sieved.get(i).length;
+      }
+      pool.submit(() -> IntStream.range(0, offsets.length).parallel().forEach(
+        i -> consumer.accept(sieved.get(i), offsets[i]))).join();
+      if (listener != null) {
+        // Chunk i starts at low + i * CHUNK_SPAN, so every value below the next chunk has been sieved.
+        listener.completed(found, Math.min(ceiling, low - 1 + last * CHUNK_SPAN));
+      }
+    }
+    return found;
+  }
+
+  /** Sieve one chunk starting at the given odd value, returning its primes, preceded by two if requested. */
+  private int[] sieveChunk(final int[] basePrimes, final long low, final long end, final boolean two) {
+    final long high = Math.min(end, low + CHUNK_SPAN);
+    final long[] segment = new long[SEGMENT_WORDS];
+    final PrimeCollector collector = new PrimeCollector(high - low);
+    if (two) {
+      collector.test(2);
+    }
+    for (long segmentLow = low; segmentLow < high; segmentLow += SEGMENT_BITS << 1) {
+      final int bits = (int) Math.min(SEGMENT_BITS, (high - segmentLow + 1) >> 1);
+      sieveSegment(segment, segmentLow, bits, basePrimes);
+      collectPrimes(segment, segmentLow, bits, collector);
+    }
+    return collector.toArray();
+  }
+
+  /** Receives progress as primes are written. */
+  @FunctionalInterface
+  static interface WaveListener {
+
+    /**
+     * Called when every prime up to a value has been written.
+     *
+     * @param primes the quantity of primes written so far.
+     * @param through every prime less than or equal to this value has been written.
+     */
+    void completed(long primes, long through);
+  }
+
+  /** Receives the primes found in one chunk. */
+  @FunctionalInterface
+  private static interface ChunkConsumer {
+
+    void accept(int[] primes, long offset);
+  }
+
+  /** Collects primes into a growable array. */
+  private static final class PrimeCollector
+  implements IntPredicate {
+
+    private int[] primes;
+
+    private int size;
+
+    PrimeCollector(final long span) {
+      // About one in ten numbers are prime in the ranges used by Project Euler problems, so this rarely needs to grow.
+      primes = new int[(int) (span / 10) + 16];
+    }
+
+    @Override
+    public boolean test(final int prime) {
+      if (size == primes.length) {
+        primes = Arrays.copyOf(primes, primes.length << 1);
+      }
+      primes[size++] = prime;
+      return true;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(primes, size);
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.util.function.IntPredicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import us.coffeecode.project_euler.common.MillerRabin;
+
+/**
+ * <p>
+ * Determines if numbers are prime in constant time. This is much faster than searching an array of primes, and does
+ * not require each solution to hold its own copy of the primes.
+ * </p>
+ * <p>
+ * The primes are read from the prime provider's buffer view into a bitset that has one bit per odd number. For a
+ * file-backed provider, the primes are read directly from the mapped file. The bitset is sized from the largest number
+ * tested so far, not from its ceiling: when a number beyond it is tested, it is rebuilt at least twice as large, so a
+ * series of growing numbers rebuilds it only a few times and the provider never has to find more primes than are used.
+ * Checking a number covered by the bitset is a single bit lookup. Numbers above the ceiling, including any
+ * <code>long</code>, are checked with the deterministic {@link MillerRabin} test.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@Component
+public class PrimalityCheck
+implements IntPredicate {
+
+  /**
+   * Default ceiling of the bitset, which takes 8 MB at most. Above this, Miller-Rabin is fast enough that caching more
+   * primes is not worth the file and memory it takes.
+   */
+  private static final int DEFAULT_CEILING = 1 << 27;
+
+  /** Smallest number the bitset covers. Sieving this far takes a few milliseconds. */
+  private static final int MIN_CEILING = 1 << 16;
+
+  private final IPrimeProvider primeProvider;
+
+  private final MillerRabin millerRabin;
+
+  private final int ceiling;
+
+  /**
+   * Bit i is set if 2i+1 is prime, or null if the bitset is not built yet. Every number the array has a bit for, up to
+   * the ceiling, is covered.
+   */
+  private volatile long[] bits;
+
+  @Autowired
+  public PrimalityCheck(final IPrimeProvider provider, final MillerRabin test) {
+    this(provider, test, DEFAULT_CEILING);
+  }
+
+  public PrimalityCheck(final IPrimeProvider provider, final MillerRabin test, final int bitsetCeiling) {
+    primeProvider = provider;
+    millerRabin = test;
+    ceiling = bitsetCeiling;
+  }
+
+  @Override
+  public boolean test(final int value) {
+    if ((value & 1) == 0) {
+      return value == 2;
+    }
+    else if (value < 3) {
+      return false;
+    }
+    else if (value > ceiling) {
+      return millerRabin.test(value);
+    }
+    long[] b = bits;
+    if ((b == null) || ((value >>> 7) >= b.length)) {
+      b = grow(value);
+    }
+    final int bit = value >>> 1;
+    return (b[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Determine if a <code>long</code> is prime. Values that fit in an <code>int</code> use the bitset, if possible.
+   *
+   * @param value the value to test.
+   * @return whether the value is prime.
+   */
+  public boolean test(final long value) {
+    if ((Integer.MIN_VALUE <= value) && (value <= Integer.MAX_VALUE)) {
+      return test((int) value);
+    }
+    return millerRabin.test(value);
+  }
+
+  /**
+   * Get a bitset that covers a value, rebuilding it if the current one is too small.
+   *
+   * @param value a value no greater than the ceiling.
+   * @return the bitset.
+   */
+  private synchronized long[] grow(final int value) {
+    long[] b = bits;
+    if ((b == null) || ((value >>> 7) >= b.length)) {
+      final long covered = b == null ? 0 : (long) b.length << 7;
+      // Each word covers 128 numbers, so end on a word boundary and every number the array has a bit for is covered.
+      final long target = Math.max(value | 127, Math.max(MIN_CEILING, 2 * covered) - 1);
+      final int limit = (int) Math.min(ceiling, target);
+      final IntBuffer primes = primeProvider.getPrimesEqualToOrLessThanBuffer(limit);
+      // Primes after two are all odd, so they map to bits by dividing by two.
+      b = new long[(limit >>> 7) + 1];
+      for (int i = 1; i < primes.limit(); ++i) {
+        final int bit = primes.get(i) >>> 1;
+        b[bit >>> 6] |= 1L << bit;
+      }
+      bits = b;
+    }
+    return b;
+  }
+
+}
@@ -0,0 +1,434 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.zip.CRC32C;
+
+/**
+ * <p>
+ * Reader and writer for files containing a sorted list of primes starting with two. Three versions of the file format
+ * are supported.
+ * </p>
+ * <ol>
+ * <li>The original format has no header: it is simply every prime as a 32-bit big-endian integer. This takes four bytes
+ * per prime.</li>
+ * <li>The compact format stores the gaps between primes. Every prime after two is odd, so half of the gap between
+ * consecutive primes is an integer, and it is no more than 168 for any pair of primes that fit in an <code>int</code>.
+ * Each prime is therefore one byte in this format, plus an absolute checkpoint value every
+ * {@value #CHECKPOINT_INTERVAL} primes to allow random access. This takes a little over one byte per prime.</li>
+ * <li>The checked format is the original format after a header, which allows a truncated or corrupt file to be
+ * detected before any of its primes are used.</li>
+ * </ol>
+ * <p>
+ * The compact format starts with a header consisting of the magic number, the version number, the quantity of primes,
+ * and the checkpoint interval. The checked format starts with the magic number, the version number, the quantity of
+ * primes, the ceiling up to which they were sieved, and a CRC-32C checksum of the primes. The original format starts
+ * with the prime two, which can never match the magic number, so the format of any file can be detected from its first
+ * four bytes.
+ * </p>
+ * <p>
+ * Files are mapped into memory and decoded lazily: nothing is decoded until a prime is requested, and random access
+ * decodes no more than one checkpoint interval.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimeFile {
+
+  /** Magic number at the start of a file with a header: the ASCII bytes "PRMS". */
+  static final int MAGIC = 0x50524D53;
+
+  /** Version number of the original format, which has no header. */
+  public static final int VERSION_RAW = 1;
+
+  /** Version number of the compact format, which stores gaps between primes. */
+  public static final int VERSION_GAPS = 2;
+
+  /** Version number of the checked format, which is the original format after a header with a checksum. */
+  public static final int VERSION_CHECKED = 3;
+
+  /** Size of the compact format's header in bytes. */
+  static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+  /** Size of the checked format's header in bytes. */
+  static final int CHECKED_HEADER_BYTES = 5 * Integer.BYTES;
+
+  /** Quantity of primes between absolute checkpoints in the compact format. */
+  static final int CHECKPOINT_INTERVAL = 64;
+
+  /** Mapping of the entire file. */
+  private final ByteBuffer buffer;
+
+  private final int version;
+
+  private final int size;
+
+  /** Offset of the first gap in the compact format. */
+  private final int gapsOffset;
+
+  /** Checkpoints in the compact format, or every prime in the other formats. */
+  private final IntBuffer checkpoints;
+
+  /** Every prime less than or equal to this value is in the file. */
+  private final int ceiling;
+
+  private PrimeFile(final ByteBuffer mapping) {
+    buffer = mapping;
+    if ((buffer.limit() >= HEADER_BYTES) && (buffer.getInt(0) == MAGIC)) {
+      version = buffer.getInt(Integer.BYTES);
+      size = buffer.getInt(Integer.BYTES * 2);
+      if (version == VERSION_CHECKED) {
+        if ((size < 0) || ((buffer.limit() - CHECKED_HEADER_BYTES) / Integer.BYTES < size)) {
+          throw new IllegalStateException("Truncated prime file: expected " + size + " primes");
+        }
+        gapsOffset = 0;
+        checkpoints = buffer.slice(CHECKED_HEADER_BYTES, size * Integer.BYTES).asIntBuffer();
+      }
+      else if (version == VERSION_GAPS) {
+        if (buffer.getInt(Integer.BYTES * 3) != CHECKPOINT_INTERVAL) {
+          throw new IllegalStateException("Unsupported checkpoint interval " + buffer.getInt(Integer.BYTES * 3));
+        }
+        gapsOffset = HEADER_BYTES;
+        final int checkpointCount = (size + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        checkpoints = buffer.slice(gapsOffset + size, checkpointCount * Integer.BYTES).asIntBuffer();
+      }
+      else {
+        throw new IllegalStateException("Unsupported prime file version " + version);
+      }
+    }
+    else {
+      version = VERSION_RAW;
+      size = buffer.limit() / Integer.BYTES;
+      gapsOffset = 0;
+      checkpoints = buffer.asIntBuffer();
+    }
+    if (version == VERSION_CHECKED) {
+      ceiling = buffer.getInt(Integer.BYTES * 3);
+    }
+    else {
+      // Without a ceiling in the header, all that is known is that the file holds every prime up to its last.
+      ceiling = size == 0 ? 1 : get(size - 1);
+    }
+  }
+
+  /**
+   * Open a prime file of any format. The file is mapped read-only, and the mapping remains valid after this returns.
+   * The checksum of a file in the checked format is not verified: use {@link #openChecked(FileChannel)} for that.
+   *
+   * @param path the file to open.
+   * @return the prime file.
+   * @throws IOException if the file cannot be read.
+   */
+  public static PrimeFile open(final Path path) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path)) {
+      return open(channel);
+    }
+  }
+
+  /** Map an open file of any format without verifying its checksum. */
+  static PrimeFile open(final FileChannel channel) throws IOException {
+    return new PrimeFile(channel.map(MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE)));
+  }
+
+  /**
+   * Sieve all primes less than or equal to the ceiling and write them to a file in the compact format. Primes are
+   * encoded as they are sieved, so this never holds them all in memory.
+   *
+   * @param path the file to write. If it exists, it is overwritten.
+   * @param ceiling the maximum prime value.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void writeCompact(final Path path, final int ceiling) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE)) {
+      channel.position(HEADER_BYTES);
+      final OutputStream gaps = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+      final GapEncoder encoder = new GapEncoder(gaps);
+      try {
+        new SegmentedSievePrimeProvider().sieve(ceiling, encoder);
+      }
+      catch (final UncheckedIOException ex) {
+        throw ex.getCause();
+      }
+      gaps.flush();
+
+      final ByteBuffer checkpoints = ByteBuffer.allocate(encoder.checkpointCount * Integer.BYTES);
+      checkpoints.asIntBuffer().put(encoder.checkpoints, 0, encoder.checkpointCount);
+      write(channel, checkpoints, HEADER_BYTES + (long) encoder.size);
+
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION_GAPS).putInt(encoder.size).putInt(CHECKPOINT_INTERVAL).flip();
+      write(channel, header, 0);
+    }
+  }
+
+  /**
+   * Write the header of the checked format to the start of a channel, after the primes have been written following it.
+   * The primes are read back from the channel to calculate their checksum.
+   *
+   * @param channel the channel to which the primes were written. It must be open for reading and writing.
+   * @param size the quantity of primes written.
+   * @param ceiling the value up to which the primes were sieved.
+   * @throws IOException if the channel cannot be read or written.
+   */
+  static void writeCheckedHeader(final FileChannel channel, final int size, final int ceiling) throws IOException {
+    final ByteBuffer primes = channel.map(MapMode.READ_ONLY, CHECKED_HEADER_BYTES, (long) size * Integer.BYTES);
+    final ByteBuffer header = ByteBuffer.allocate(CHECKED_HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION_CHECKED).putInt(size).putInt(ceiling).putInt(checksum(primes)).flip();
+    write(channel, header, 0);
+  }
+
+  /**
+   * Open a file in the checked format, if the header is valid, the file is exactly long enough to hold the primes it
+   * describes, and their checksum matches.
+   *
+   * @param channel the channel to map.
+   * @return the prime file, or null if it is not a valid file in the checked format.
+   * @throws IOException if the channel cannot be read.
+   */
+  static PrimeFile openChecked(final FileChannel channel) throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(CHECKED_HEADER_BYTES);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        return null;
+      }
+    }
+    final int size = header.getInt(Integer.BYTES * 2);
+    if ((header.getInt(0) != MAGIC) || (header.getInt(Integer.BYTES) != VERSION_CHECKED) || (size < 0)
+      || (channel.size() != CHECKED_HEADER_BYTES + (long) size * Integer.BYTES)) {
+      return null;
+    }
+    final PrimeFile file = open(channel);
+    if (checksum(file.buffer.slice(CHECKED_HEADER_BYTES, size * Integer.BYTES)) != header.getInt(Integer.BYTES * 4)) {
+      return null;
+    }
+    return file;
+  }
+
+  /** Calculate the checksum of the remaining bytes in a buffer, without changing its position. */
+  private static int checksum(final ByteBuffer bytes) {
+    final CRC32C crc = new CRC32C();
+    crc.update(bytes.duplicate());
+    return (int) crc.getValue();
+  }
+
+  /** Write the entire buffer to the channel at the given position. */
+  private static void write(final FileChannel channel, final ByteBuffer src, final long position) throws IOException {
+    long p = position;
+    while (src.hasRemaining()) {
+      p += channel.write(src, p);
+    }
+  }
+
+  /** Get the version of the file's format. */
+  public int getVersion() {
+    return version;
+  }
+
+  /** Get the quantity of primes in the file. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the value up to which the primes in the file were sieved: every prime less than or equal to it is in the file.
+   * Only the checked format records this. For the other formats, it is the largest prime in the file.
+   */
+  public int getCeiling() {
+    return ceiling;
+  }
+
+  /** Get a read-only view of every prime in a file in one of the uncompressed formats, without copying them. */
+  IntBuffer getPrimes() {
+    if (version == VERSION_GAPS) {
+      throw new IllegalStateException("Primes in the compact format must be decoded");
+    }
+    return checkpoints.duplicate();
+  }
+
+  /**
+   * Get the prime at the given index.
+   *
+   * @param index the zero-based index of the prime, where the prime at index zero is two.
+   * @return the prime.
+   */
+  public int get(final int index) {
+    if ((index < 0) || (index >= size)) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    if (version != VERSION_GAPS) {
+      return checkpoints.get(index);
+    }
+    final int checkpoint = index / CHECKPOINT_INTERVAL;
+    final int first = checkpoint * CHECKPOINT_INTERVAL;
+    if (index == first) {
+      return checkpoints.get(checkpoint);
+    }
+    int half = checkpoints.get(checkpoint) >> 1;
+    for (int i = first + 1; i <= index; ++i) {
+      half += gap(i);
+    }
+    return (half << 1) | 1;
+  }
+
+  /**
+   * Copy the first primes in the file into the given array, filling it.
+   *
+   * @param primes the array to fill.
+   */
+  public void get(final int[] primes) {
+    if (primes.length > size) {
+      throw new IndexOutOfBoundsException("Length " + primes.length + " out of bounds for size " + size);
+    }
+    if (version != VERSION_GAPS) {
+      checkpoints.get(0, primes);
+      return;
+    }
+    // Decode sequentially: this only needs the first checkpoint.
+    int half = 1;
+    for (int i = 0; i < primes.length; ++i) {
+      half += gap(i);
+      primes[i] = (half << 1) | 1;
+    }
+    if (primes.length > 0) {
+      primes[0] = 2;
+    }
+  }
+
+  /**
+   * Count the primes in the file less than or equal to the given value. This is the index of the first prime greater
+   * than the value.
+   *
+   * @param value the value to look up.
+   * @return the quantity of primes less than or equal to the value.
+   */
+  public int countEqualToOrLessThan(final int value) {
+    // Binary search the checkpoints, which are every prime in the uncompressed formats, for the last one that is not
+    // greater than the value.
+    int low = 0;
+    int high = checkpoints.limit();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (checkpoints.get(mid) <= value) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    if ((version != VERSION_GAPS) || (low == 0)) {
+      return low;
+    }
+
+    // Decode forward from the checkpoint until passing the value or reaching the next checkpoint.
+    final int checkpoint = low - 1;
+    int index = checkpoint * CHECKPOINT_INTERVAL;
+    final int last = Math.min(size, index + CHECKPOINT_INTERVAL) - 1;
+    int half = checkpoints.get(checkpoint) >> 1;
+    while (index < last) {
+      final int next = half + gap(index + 1);
+      if (((next << 1) | 1) > value) {
+        break;
+      }
+      half = next;
+      ++index;
+    }
+    return index + 1;
+  }
+
+  /**
+   * Get the index of the given value if it is in the file. This has the same semantics as
+   * {@link Arrays#binarySearch(int[], int)}: if the value is not a prime in the file, this returns
+   * <code>(-(insertion point) - 1)</code>.
+   *
+   * @param value the value to look up.
+   * @return the index of the value, or a negative number if it is not in the file.
+   */
+  public int indexOf(final int value) {
+    final int count = countEqualToOrLessThan(value);
+    if ((count > 0) && (get(count - 1) == value)) {
+      return count - 1;
+    }
+    return -count - 1;
+  }
+
+  /** Get half the gap between the prime at the given index and the previous prime. */
+  private int gap(final int index) {
+    return buffer.get(gapsOffset + index) & 0xFF;
+  }
+
+  /** Encodes primes as they are sieved, writing the gaps to a stream and keeping the checkpoints in memory. */
+  private static final class GapEncoder
+  implements IntPredicate {
+
+    private final OutputStream gaps;
+
+    int[] checkpoints = new int[1024];
+
+    int checkpointCount;
+
+    int size;
+
+    private int previous = 2;
+
+    GapEncoder(final OutputStream out) {
+      gaps = out;
+    }
+
+    @Override
+    public boolean test(final int prime) {
+      if (size % CHECKPOINT_INTERVAL == 0) {
+        if (checkpointCount == checkpoints.length) {
+          checkpoints = Arrays.copyOf(checkpoints, checkpoints.length << 1);
+        }
+        checkpoints[checkpointCount++] = prime;
+      }
+      final int gap = (prime >> 1) - (previous >> 1);
+      if (gap > 0xFF) {
+        throw new IllegalStateException("Gap between " + previous + " and " + prime + " is too large to encode");
+      }
+      try {
+        gaps.write(gap);
+      }
+      catch (final IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      previous = prime;
+      ++size;
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Graph whose vertices are primes, with an edge between two primes if concatenating them in either order gives a
+ * prime. Each vertex's edges to larger primes are stored as a row of a bitset, so the primes adjacent to every member
+ * of a set are found by intersecting their rows a word at a time. Rows are independent, so they are built in parallel.
+ * Pairs whose concatenation is divisible by three are skipped without a primality test: the digit sum of the
+ * concatenation is the sum of the two primes' digit sums, so unless one of them is three, they must have the same
+ * remainder modulo three.
+ * </p>
+ * <p>
+ * The clique search finds the set of primes with the smallest sum in which every pair is connected. It extends sets in
+ * ascending order of their primes, so the candidates at each step are sorted and the search stops as soon as the next
+ * candidate, repeated for every remaining member, could not beat the best sum found so far. The search allocates its
+ * working bitsets once, not per candidate.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimePairGraph {
+
+  private final int[] primes;
+
+  /** Number of 64-bit words in each row. */
+  private final int words;
+
+  /** Row i starts at word i * words. Bit j of a row is set if j &gt; i and primes i and j are connected. */
+  private final long[] adjacency;
+
+  private PrimePairGraph(final int[] vertices, final PrimalityCheck primalityCheck) {
+    primes = vertices;
+    words = (primes.length + 63) >>> 6;
+    adjacency = new long[primes.length * words];
+    // Each task writes only its own row.
+    IntStream.range(0, primes.length).parallel().forEach(i -> buildRow(i, primalityCheck));
+  }
+
+  /**
+   * Build the graph of the primes in a buffer.
+   *
+   * @param vertices the primes, in ascending order. Its position and limit are not modified.
+   * @param primalityCheck tests the concatenations.
+   * @return the graph.
+   */
+  public static PrimePairGraph build(final IntBuffer vertices, final PrimalityCheck primalityCheck) {
+    final int[] primes = new int[vertices.limit()];
+    vertices.get(0, primes);
+    return new PrimePairGraph(primes, primalityCheck);
+  }
+
+  /** Get the quantity of primes in the graph. */
+  public int size() {
+    return primes.length;
+  }
+
+  /** Get whether the primes at two indices are connected. */
+  public boolean isConnected(final int i, final int j) {
+    final int low = Math.min(i, j);
+    final int high = Math.max(i, j);
+    return (adjacency[low * words + (high >>> 6)] & (1L << high)) != 0;
+  }
+
+  /**
+   * Find the set of primes with the smallest sum in which every pair of primes is connected.
+   *
+   * @param k the quantity of primes in the set.
+   * @return the primes in ascending order, or null if there is no such set.
+   */
+  public int[] findMinimumSumClique(final int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("Clique size " + k + " must be positive");
+    }
+    return new Search(k).run();
+  }
+
+  /** Concatenate the decimal digits of two positive numbers. */
+  static long concatenate(final int a, final int b) {
+    long power = 10;
+    while (power <= b) {
+      power *= 10;
+    }
+    return a * power + b;
+  }
+
+  private void buildRow(final int i, final PrimalityCheck primalityCheck) {
+    final int a = primes[i];
+    final int row = i * words;
+    for (int j = i + 1; j < primes.length; ++j) {
+      final int b = primes[j];
+      if (((a == 3) || (a % 3 == b % 3)) && primalityCheck.test(concatenate(a, b))
+        && primalityCheck.test(concatenate(b, a))) {
+        adjacency[row + (j >>> 6)] |= 1L << j;
+      }
+    }
+  }
+
+  /** State of one clique search. */
+  private final class Search {
+
+    private final int k;
+
+    /** Element d is the set of primes connected to every prime chosen before depth d. */
+    private final long[][] candidates;
+
+    private final int[] chosen;
+
+    private final int[] best;
+
+    private long bestSum = Long.MAX_VALUE;
+
+    Search(final int size) {
+      k = size;
+      candidates = new long[k][words];
+      chosen = new int[k];
+      best = new int[k];
+    }
+
+    int[] run() {
+      Arrays.fill(candidates[0], -1L);
+      if ((primes.length & 63) != 0) {
+        candidates[0][words - 1] = (1L << primes.length) - 1;
+      }
+      extend(0, 0);
+      if (bestSum == Long.MAX_VALUE) {
+        return null;
+      }
+      final int[] clique = new int[k];
+      for (int i = 0; i < k; ++i) {
+        clique[i] = primes[best[i]];
+      }
+      return clique;
+    }
+
+    /** Try each candidate at the given depth, given the sum of the primes chosen before it. */
+    private void extend(final int depth, final long sum) {
+      final long[] c = candidates[depth];
+      final int remaining = k - depth;
+      for (int w = 0; w < words; ++w) {
+        long word = c[w];
+        while (word != 0) {
+          final int j = (w << 6) + Long.numberOfTrailingZeros(word);
+          word &= word - 1;
+          final long p = primes[j];
+          // Later candidates are larger, so if this one cannot fill every remaining place and beat the best, none can.
+          if (sum + p * remaining >= bestSum) {
+            return;
+          }
+          chosen[depth] = j;
+          if (remaining == 1) {
+            bestSum = sum + p;
+            System.arraycopy(chosen, 0, best, 0, k);
+            return;
+          }
+          if (intersect(c, j, candidates[depth + 1]) >= remaining - 1) {
+            extend(depth + 1, sum + p);
+          }
+        }
+      }
+    }
+
+    /** Intersect a set of candidates with the row of a prime, returning the size of the intersection. */
+    private int intersect(final long[] c, final int j, final long[] next) {
+      final int row = j * words;
+      int count = 0;
+      for (int w = 0; w < words; ++w) {
+        next[w] = c[w] & adjacency[row + w];
+        count += Long.bitCount(next[w]);
+      }
+      return count;
+    }
+  }
+
+}
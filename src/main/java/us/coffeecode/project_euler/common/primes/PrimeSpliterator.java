@@ -0,0 +1,116 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ * Spliterator over a range of indices in a sorted buffer of primes. The primes are read with absolute gets, so the
+ * buffer may be a view of a mapped file shared with other readers, and no primes are copied onto the heap. Splitting
+ * divides the remaining range in half, so parallel streams over millions of primes are balanced across threads.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+final class PrimeSpliterator
+implements Spliterator.OfInt {
+
+  /** Ranges smaller than this are not split, since the work is too little to be worth a task. */
+  private static final int MIN_SPLIT = 1 << 10;
+
+  private final IntBuffer primes;
+
+  /** Index of the next prime. */
+  private int index;
+
+  /** One past the index of the last prime. */
+  private final int fence;
+
+  PrimeSpliterator(final IntBuffer buffer, final int origin, final int end) {
+    primes = buffer;
+    index = origin;
+    fence = end;
+  }
+
+  /**
+   * Construct a spliterator over the primes in a sorted buffer that are greater than or equal to a value.
+   *
+   * @param buffer every prime up to the end of the range. Its position and limit are not modified.
+   * @param from the smallest value in the range.
+   * @return the spliterator.
+   */
+  static PrimeSpliterator atLeast(final IntBuffer buffer, final int from) {
+    // The first prime greater than or equal to the value follows every prime less than or equal to the one below it.
+    final int origin =
+      from == Integer.MIN_VALUE ? 0 : FileCachePrimeProvider.countPrimesEqualToOrLessThan(buffer, from - 1);
+    return new PrimeSpliterator(buffer, origin, buffer.limit());
+  }
+
+  @Override
+  public boolean tryAdvance(final IntConsumer action) {
+    if (index < fence) {
+      action.accept(primes.get(index++));
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(final IntConsumer action) {
+    final int end = fence;
+    for (int i = index; i < end; ++i) {
+      action.accept(primes.get(i));
+    }
+    index = end;
+  }
+
+  @Override
+  public PrimeSpliterator trySplit() {
+    final int size = fence - index;
+    if (size < MIN_SPLIT) {
+      return null;
+    }
+    final int mid = index + (size >>> 1);
+    final PrimeSpliterator prefix = new PrimeSpliterator(primes, index, mid);
+    index = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return fence - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+
+  @Override
+  public Comparator<? super Integer> getComparator() {
+    // Primes are in their natural order.
+    return null;
+  }
+
+}
@@ -0,0 +1,92 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+
+/**
+ * <p>
+ * A lazily read, shared view of the primes up to a ceiling, opened by {@link PrimeWindows}. The primes are read the
+ * first time they are needed, and the window holds a reference to them until it is closed. Use it in a
+ * try-with-resources statement inside the method that needs the primes. A window is meant for use by one thread.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimeWindow
+implements AutoCloseable {
+
+  private final PrimeWindows windows;
+
+  private final int ceiling;
+
+  /** The primes, or null if they are not read yet. */
+  private IntBuffer primes;
+
+  private boolean closed;
+
+  PrimeWindow(final PrimeWindows owner, final int maximum) {
+    windows = owner;
+    ceiling = maximum;
+  }
+
+  /** Get the ceiling of this window. */
+  public int getCeiling() {
+    return ceiling;
+  }
+
+  /**
+   * Get a read-only view of the primes in this window. The buffer's position is zero and its limit is the quantity of
+   * primes. The buffer belongs to this window, but the primes behind it are shared with other windows.
+   *
+   * @return the primes.
+   */
+  public IntBuffer getPrimes() {
+    if (closed) {
+      throw new IllegalStateException("Window is closed");
+    }
+    if (primes == null) {
+      primes = windows.acquire(ceiling);
+    }
+    return primes;
+  }
+
+  /** Get the quantity of primes in this window. */
+  public int size() {
+    return getPrimes().limit();
+  }
+
+  /** Get the prime at the given index, starting at zero for two. */
+  public int get(final int index) {
+    return getPrimes().get(index);
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      if (primes != null) {
+        primes = null;
+        windows.release();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Hands out windows of the primes up to a ceiling, shared by every solver so the same primes are never copied twice.
+ * Opening a window is free: the primes are only requested from the prime provider when the window is first read, which
+ * is when a solver actually runs instead of when Spring creates it.
+ * </p>
+ * <p>
+ * One set of primes is shared: the widest range read so far. A window for a smaller ceiling is a slice of it, and a
+ * window for a larger ceiling replaces it with a wider range. Windows are reference counted, and when the last open
+ * window is closed, the shared primes are released so the garbage collector can reclaim them. For a file-backed
+ * provider, the primes are a view of the mapped file and are never copied onto the heap at all.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@Component
+public class PrimeWindows {
+
+  private final IPrimeProvider primeProvider;
+
+  /** The widest range of primes read by an open window, or null if no window is open. Guarded by this. */
+  private IntBuffer shared;
+
+  /** Ceiling that was requested for the shared primes. Guarded by this. */
+  private int sharedCeiling;
+
+  /** Quantity of open windows that have read primes. Guarded by this. */
+  private int references;
+
+  @Autowired
+  public PrimeWindows(final IPrimeProvider provider) {
+    primeProvider = provider;
+  }
+
+  /**
+   * Open a window of all primes less than or equal to the ceiling, with the same semantics as
+   * {@link IPrimeProvider#getPrimesEqualToOrLessThan(int)}. This does not read any primes until the window is used.
+   * The caller must close the window when it is done with the primes.
+   *
+   * @param ceiling the desired maximum prime value.
+   * @return the window.
+   */
+  public PrimeWindow open(final int ceiling) {
+    return new PrimeWindow(this, ceiling);
+  }
+
+  /** Get the quantity of open windows that have read primes. */
+  public synchronized int getReferenceCount() {
+    return references;
+  }
+
+  /** Get a read-only slice of the shared primes up to the ceiling, reading a wider range if needed. */
+  synchronized IntBuffer acquire(final int ceiling) {
+    if ((shared == null) || (sharedCeiling < ceiling)) {
+      // Windows that are already open keep their slices of the narrower range until they close.
+      shared = primeProvider.getPrimesEqualToOrLessThanBuffer(ceiling);
+      sharedCeiling = ceiling;
+    }
+    ++references;
+    return shared.slice(0, FileCachePrimeProvider.countPrimesEqualToOrLessThan(shared, ceiling));
+  }
+
+  /** Release one reference to the shared primes, dropping them if it was the last. */
+  synchronized void release() {
+    if (--references == 0) {
+      shared = null;
+    }
+  }
+
+}
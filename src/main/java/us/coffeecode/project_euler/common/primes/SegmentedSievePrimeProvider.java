@@ -0,0 +1,207 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+import com.google.common.math.IntMath;
+
+/**
+ * <p>
+ * Prime provider that finds primes via a segmented sieve. Unlike {@link SievePrimeProvider}, this does not allocate a
+ * sieve covering the whole range at once. Instead, it sieves one small segment at a time using only the primes up to
+ * the square root of the ceiling. Each segment is a bitset that only represents odd numbers, and is sized to fit in the
+ * processor's cache. Working memory is therefore a few kilobytes for the segment plus the base primes, regardless of
+ * the ceiling: the only large allocation is the array of primes being returned.
+ * </p>
+ * <p>
+ * The primes returned are identical to those returned by {@link SievePrimeProvider}, so this can be used to populate
+ * the {@link FileCachePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public class SegmentedSievePrimeProvider
+implements IPrimeProvider {
+
+  /** Size of a sieve segment in bytes. This fits in the L1 data cache of most processors. */
+  static final int SEGMENT_BYTES = 32 * 1024;
+
+  /** Number of 64-bit words in a segment. */
+  static final int SEGMENT_WORDS = SEGMENT_BYTES / Long.BYTES;
+
+  /** Number of odd values represented in a segment: one per bit. */
+  static final int SEGMENT_BITS = SEGMENT_BYTES * Byte.SIZE;
+
+  @Override
+  public int[] getFirstNPrimes(final int quantityOfPrimes) {
+    if (quantityOfPrimes < 0) {
+      throw new IllegalArgumentException("Quantity of primes " + quantityOfPrimes + " must be nonnegative");
+    }
+    else if (quantityOfPrimes < 6) {
+      return Arrays.copyOf(new int[] { 2, 3, 5, 7, 11 }, quantityOfPrimes);
+    }
+
+    /*
+     * This uses the inequality PI(n) < n(ln n + ln ln n) for n >= 6 where n = quantityOfPrimes. For more info:
+     * http://math.stackexchange.com/a/2146323/
+     */
+    final double n = quantityOfPrimes;
+    final double ln_n = Math.log(n);
+    final double ln_ln_n = Math.log(ln_n);
+    final double ceiling = n * (ln_n + ln_ln_n);
+    if (ceiling > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Quantity of primes " + quantityOfPrimes + " is too large");
+    }
+
+    final int[] primes = new int[quantityOfPrimes];
+    final int[] found = new int[1];
+    sieve((int) ceiling, p -> {
+      primes[found[0]] = p;
+      return ++found[0] < primes.length;
+    });
+    if (found[0] == primes.length) {
+      return primes;
+    }
+    // Ceiling was calculated incorrectly: however, this should never happen.
+    throw new AssertionError("QuantityOfPrimes [" + quantityOfPrimes + "], d [" + ceiling + "]");
+  }
+
+  @Override
+  public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+    if (ceiling < 2) {
+      return new int[0];
+    }
+    /*
+     * PI(x) < 1.25506 x / ln x for x > 1, so this array is always large enough. For more info:
+     * https://en.wikipedia.org/wiki/Prime-counting_function#Inequalities
+     */
+    final int upperBound = (int) Math.min(ceiling, 1.25506 * ceiling / Math.log(ceiling) + 1);
+    final int[] primes = new int[upperBound];
+    final int[] found = new int[1];
+    sieve(ceiling, p -> {
+      primes[found[0]++] = p;
+      return true;
+    });
+    return found[0] == primes.length ? primes : Arrays.copyOf(primes, found[0]);
+  }
+
+  /**
+   * Sieve all primes less than or equal to the ceiling, passing each one in ascending order to the given action.
+   * Sieving stops early if the action returns false.
+   *
+   * @param ceiling the maximum value to sieve.
+   * @param action receives each prime. Returns true to keep sieving, false to stop.
+   */
+  void sieve(final int ceiling, final IntPredicate action) {
+    sieve(0, ceiling, action);
+  }
+
+  /**
+   * Sieve all primes greater than the floor and less than or equal to the ceiling, passing each one in ascending order
+   * to the given action. Only the segments in that range are sieved. Sieving stops early if the action returns false.
+   *
+   * @param floor every prime passed to the action is greater than this.
+   * @param ceiling the maximum value to sieve.
+   * @param action receives each prime. Returns true to keep sieving, false to stop.
+   */
+  void sieve(final int floor, final int ceiling, final IntPredicate action) {
+    if ((ceiling < 2) || (floor >= ceiling) || ((floor < 2) && !action.test(2))) {
+      return;
+    }
+    final int[] basePrimes = getBasePrimes(ceiling);
+    final long[] segment = new long[SEGMENT_WORDS];
+    final long end = ceiling + 1L;
+    for (long low = firstOdd(floor); low < end; low += SEGMENT_BITS << 1) {
+      final int bits = (int) Math.min(SEGMENT_BITS, (end - low + 1) >> 1);
+      sieveSegment(segment, low, bits, basePrimes);
+      if (!collectPrimes(segment, low, bits, action)) {
+        return;
+      }
+    }
+  }
+
+  /** Get the first odd value greater than the floor, and not less than three. */
+  static long firstOdd(final int floor) {
+    return Math.max(3, (floor + 1L) | 1);
+  }
+
+  /**
+   * Get the odd primes up to the square root of the ceiling. These are the only primes needed to sieve every segment up
+   * to the ceiling.
+   */
+  static int[] getBasePrimes(final int ceiling) {
+    final int[] primes = new SievePrimeProvider().getPrimesEqualToOrLessThan(IntMath.sqrt(ceiling, RoundingMode.DOWN));
+    return primes.length == 0 ? primes : Arrays.copyOfRange(primes, 1, primes.length);
+  }
+
+  /**
+   * Sieve one segment. Bit <em>i</em> of the segment represents the odd number <code>low + 2i</code>, and is set if
+   * that number is composite.
+   *
+   * @param segment the bitset to fill in. It is cleared before sieving.
+   * @param low the first value in the segment, which must be odd.
+   * @param bits the number of odd values in the segment.
+   * @param basePrimes odd primes, in ascending order, up to at least the square root of the highest value.
+   */
+  static void sieveSegment(final long[] segment, final long low, final int bits, final int[] basePrimes) {
+    Arrays.fill(segment, 0, (bits + 63) >>> 6, 0);
+    final long high = low + ((long) bits << 1);
+    for (final int prime : basePrimes) {
+      final long square = (long) prime * prime;
+      if (square >= high) {
+        break;
+      }
+      // Start at the first odd multiple in the segment, but never below the square: smaller multiples have a smaller
+      // prime factor, so they are already marked.
+      long start = Math.max(square, ((low + prime - 1) / prime) * prime);
+      if ((start & 1) == 0) {
+        start += prime;
+      }
+      // Consecutive odd multiples are 2p apart, which is p bits apart.
+      for (int i = (int) ((start - low) >> 1); i < bits; i += prime) {
+        segment[i >>> 6] |= 1L << i;
+      }
+    }
+  }
+
+  /** Given a processed segment, pass its primes to the action. Returns false if the action requested a stop. */
+  static boolean collectPrimes(final long[] segment, final long low, final int bits, final IntPredicate action) {
+    final int words = (bits + 63) >>> 6;
+    for (int word = 0; word < words; ++word) {
+      long primes = ~segment[word];
+      // Ignore bits past the end of the segment in the last word.
+      if ((word == words - 1) && ((bits & 63) != 0)) {
+        primes &= (1L << bits) - 1;
+      }
+      while (primes != 0) {
+        final int bit = (word << 6) + Long.numberOfTrailingZeros(primes);
+        if (!action.test((int) (low + (bit << 1)))) {
+          return false;
+        }
+        primes &= primes - 1;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,138 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.registry;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Annotation processor that writes an index of every class annotated with {@link Component} at build time, so
+ * {@link ComponentRegistry} can find solvers and their dependencies without scanning the classpath. Solvers are
+ * written to {@value #SOLVER_INDEX} and every other component to {@value #COMPONENT_INDEX}. Both are properties files
+ * that map the bean name, which for a solver is its problem number, to the binary name of the class.
+ * </p>
+ * <p>
+ * The build compiles this class on its own before the rest of the sources, and names it as an annotation processor of
+ * the main compilation so the compiler runs it on them. It is not registered as a service, so the JAR does not run it
+ * in projects that depend on it. It depends only on the compiler and the Spring annotation, not on anything it indexes.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+@SupportedAnnotationTypes("org.springframework.stereotype.Component")
+public final class ComponentIndexProcessor
+extends AbstractProcessor {
+
+  /** Resource that lists every solver. */
+  static final String SOLVER_INDEX = "META-INF/us.coffeecode.project_euler/solvers.properties";
+
+  /** Resource that lists every component that is not a solver. */
+  static final String COMPONENT_INDEX = "META-INF/us.coffeecode.project_euler/components.properties";
+
+  /** Interface implemented by solvers. This is a name, since this class is compiled before the interface. */
+  private static final String SOLVER_INTERFACE = "us.coffeecode.project_euler.ISolver";
+
+  private final Map<String, String> solvers = new TreeMap<>();
+
+  private final Map<String, String> components = new TreeMap<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+    if (round.processingOver()) {
+      write(SOLVER_INDEX, solvers);
+      write(COMPONENT_INDEX, components);
+      return false;
+    }
+    final TypeElement solver = processingEnv.getElementUtils().getTypeElement(SOLVER_INTERFACE);
+    final TypeMirror solverType = solver == null ? null : processingEnv.getTypeUtils().erasure(solver.asType());
+    for (final Element element : round.getElementsAnnotatedWith(Component.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        continue;
+      }
+      final TypeElement type = (TypeElement) element;
+      final String name = getBeanName(type.getAnnotation(Component.class).value(), type.getSimpleName().toString());
+      final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+      if ((solverType != null) && processingEnv.getTypeUtils().isAssignable(type.asType(), solverType)) {
+        solvers.put(name, className);
+      }
+      else {
+        components.put(name, className);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the bean name of a component the same way Spring does: the annotation's value, or else the simple class name
+   * with its first letter in lower case, unless the first two letters are both upper case.
+   */
+  static String getBeanName(final String value, final String simpleName) {
+    if (!value.isEmpty()) {
+      return value;
+    }
+    if ((simpleName.length() > 1) && Character.isUpperCase(simpleName.charAt(0))
+      && Character.isUpperCase(simpleName.charAt(1))) {
+      return simpleName;
+    }
+    return Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+  }
+
+  /** Write one index, sorted so the output is the same on every build. Nothing is written if it is empty. */
+  private void write(final String resource, final Map<String, String> index) {
+    if (index.isEmpty()) {
+      return;
+    }
+    try {
+      final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+      try (final Writer writer = file.openWriter()) {
+        for (final Map.Entry<String, String> entry : index.entrySet()) {
+          writer.write(entry.getKey() + '=' + entry.getValue() + '\n');
+        }
+      }
+    }
+    catch (final IOException ex) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + resource + ": " + ex);
+    }
+  }
+
+}
@@ -0,0 +1,334 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.registry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.stereotype.Component;
+
+import us.coffeecode.project_euler.ISolver;
+
+/**
+ * <p>
+ * Creates solvers and their dependencies without a Spring application context. Starting a context scans the classpath
+ * and loads much of Spring, which takes about a second before the first solver can run. This registry reads the index
+ * written at build time by {@link ComponentIndexProcessor} instead, and creates each bean only when it is first needed,
+ * so running one solver creates only that solver and what it uses.
+ * </p>
+ * <p>
+ * Beans are wired the way the Spring context wires them, for the subset of Spring the solvers use: beans are
+ * singletons, constructed with the {@link Autowired} constructor, the only constructor, or the default constructor, and
+ * then their {@link Autowired} fields are set. A dependency is the bean returned by a {@link Bean} method of the
+ * configuration class, or the one component of the required type. If the index is missing, for example when an IDE
+ * compiled the classes without running the annotation processor, the configuration class's package is scanned instead.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class ComponentRegistry {
+
+  private final Class<?> configurationClass;
+
+  private final UnaryOperator<Object> postProcessor;
+
+  /** Solver class names keyed by problem number. */
+  private final Map<String, String> solvers;
+
+  /** Class names of components that are not solvers. */
+  private final Collection<String> components;
+
+  private final boolean indexed;
+
+  /** Beans created so far, keyed by the type they were created for. Guarded by this. */
+  private final Map<Class<?>, Object> singletons = new HashMap<>();
+
+  /** Types whose beans are being created, to detect circular dependencies. Guarded by this. */
+  private final Set<Class<?>> creating = new HashSet<>();
+
+  /** Instance of the configuration class, or null if it is not created yet. Guarded by this. */
+  private Object configuration;
+
+  /**
+   * Constructs a <code>ComponentRegistry</code>.
+   *
+   * @param config the configuration class that defines beans with {@link Bean} methods, such as the prime provider.
+   */
+  public ComponentRegistry(final Class<?> config) {
+    this(config, UnaryOperator.identity());
+  }
+
+  /**
+   * Constructs a <code>ComponentRegistry</code> that passes every bean it creates through a post-processor, like a
+   * Spring <code>BeanPostProcessor</code>.
+   *
+   * @param config the configuration class that defines beans with {@link Bean} methods, such as the prime provider.
+   * @param processor returns the bean to use in place of each bean created, which may be the same bean.
+   */
+  public ComponentRegistry(final Class<?> config, final UnaryOperator<Object> processor) {
+    configurationClass = config;
+    postProcessor = processor;
+    Map<String, String> solverIndex = readIndex(ComponentIndexProcessor.SOLVER_INDEX);
+    Map<String, String> componentIndex = readIndex(ComponentIndexProcessor.COMPONENT_INDEX);
+    indexed = solverIndex != null;
+    if (!indexed) {
+      solverIndex = new HashMap<>();
+      componentIndex = new HashMap<>();
+      scan(config.getPackageName(), solverIndex, componentIndex);
+    }
+    else if (componentIndex == null) {
+      componentIndex = Map.of();
+    }
+    solvers = new TreeMap<>(Comparator.comparingInt(Integer::parseInt));
+    solvers.putAll(solverIndex);
+    components = List.copyOf(componentIndex.values());
+  }
+
+  /** Get whether the build-time index was found. If not, the classpath was scanned instead. */
+  public boolean isIndexed() {
+    return indexed;
+  }
+
+  /** Get the problem number of every solver, in ascending order. */
+  public Collection<String> getSolverIds() {
+    return solvers.keySet();
+  }
+
+  /**
+   * Get the solver for a problem, creating it and its dependencies if this is the first request for it.
+   *
+   * @param id the problem number.
+   * @return the solver.
+   * @throws IllegalArgumentException if there is no solver for the problem.
+   */
+  public ISolver getSolver(final String id) {
+    final String className = solvers.get(id);
+    if (className == null) {
+      throw new IllegalArgumentException("No solver for problem " + id);
+    }
+    return (ISolver) getBean(load(className));
+  }
+
+  /**
+   * Get the bean of the given type, creating it and its dependencies if this is the first request for it.
+   *
+   * @param type the type of the bean.
+   * @return the bean.
+   * @throws IllegalStateException if there is no bean of the type, more than one, or it cannot be created.
+   */
+  public synchronized <T> T getBean(final Class<T> type) {
+    Object bean = singletons.get(type);
+    if (bean == null) {
+      if (!creating.add(type)) {
+        throw new IllegalStateException("Circular dependency on " + type.getName());
+      }
+      try {
+        bean = create(type);
+      }
+      finally {
+        creating.remove(type);
+      }
+      singletons.put(type, bean);
+    }
+    return type.cast(bean);
+  }
+
+  /** Create a bean from a bean method or a component class, then post-process it. */
+  private Object create(final Class<?> type) {
+    for (final Method method : configurationClass.getMethods()) {
+      if (method.isAnnotationPresent(Bean.class) && type.isAssignableFrom(method.getReturnType())) {
+        return postProcessor.apply(invoke(method, getConfiguration(), resolve(method.getParameterTypes())));
+      }
+    }
+    final Class<?> implementation = findComponent(type);
+    final Constructor<?> constructor = findConstructor(implementation);
+    final Object bean = construct(constructor, resolve(constructor.getParameterTypes()));
+    for (Class<?> c = implementation; c != Object.class; c = c.getSuperclass()) {
+      for (final Field field : c.getDeclaredFields()) {
+        if (field.isAnnotationPresent(Autowired.class) && !Modifier.isStatic(field.getModifiers())) {
+          final Object dependency = getBean(field.getType());
+          try {
+            field.setAccessible(true);
+            field.set(bean, dependency);
+          }
+          catch (final IllegalAccessException ex) {
+            throw new IllegalStateException("Cannot inject " + field, ex);
+          }
+        }
+      }
+    }
+    return postProcessor.apply(bean);
+  }
+
+  /** Find the component class for a type: the type itself, or its only implementation among the components. */
+  private Class<?> findComponent(final Class<?> type) {
+    if (type.isAnnotationPresent(Component.class)) {
+      return type;
+    }
+    Class<?> found = null;
+    for (final String className : components) {
+      final Class<?> candidate = load(className);
+      if (type.isAssignableFrom(candidate)) {
+        if (found != null) {
+          throw new IllegalStateException("More than one bean of type " + type.getName() + ": " + found.getName()
+            + " and " + candidate.getName());
+        }
+        found = candidate;
+      }
+    }
+    if (found == null) {
+      throw new IllegalStateException("No bean of type " + type.getName());
+    }
+    return found;
+  }
+
+  /** Find the constructor Spring would use: the autowired one, the only one, or the default one. */
+  private static Constructor<?> findConstructor(final Class<?> type) {
+    final Constructor<?>[] constructors = type.getDeclaredConstructors();
+    for (final Constructor<?> constructor : constructors) {
+      if (constructor.isAnnotationPresent(Autowired.class)) {
+        return constructor;
+      }
+    }
+    if (constructors.length == 1) {
+      return constructors[0];
+    }
+    for (final Constructor<?> constructor : constructors) {
+      if (constructor.getParameterCount() == 0) {
+        return constructor;
+      }
+    }
+    throw new IllegalStateException("No constructor to autowire in " + type.getName());
+  }
+
+  private Object[] resolve(final Class<?>[] types) {
+    final Object[] values = new Object[types.length];
+    for (int i = 0; i < types.length; ++i) {
+      values[i] = getBean(types[i]);
+    }
+    return values;
+  }
+
+  private Object getConfiguration() {
+    if (configuration == null) {
+      configuration = construct(findConstructor(configurationClass), new Object[0]);
+    }
+    return configuration;
+  }
+
+  private static Object construct(final Constructor<?> constructor, final Object[] args) {
+    try {
+      constructor.setAccessible(true);
+      return constructor.newInstance(args);
+    }
+    catch (final InvocationTargetException ex) {
+      throw rethrow(ex);
+    }
+    catch (final ReflectiveOperationException ex) {
+      throw new IllegalStateException("Cannot create " + constructor.getDeclaringClass().getName(), ex);
+    }
+  }
+
+  private static Object invoke(final Method method, final Object target, final Object[] args) {
+    try {
+      return method.invoke(target, args);
+    }
+    catch (final InvocationTargetException ex) {
+      throw rethrow(ex);
+    }
+    catch (final ReflectiveOperationException ex) {
+      throw new IllegalStateException("Cannot call " + method, ex);
+    }
+  }
+
+  /** Rethrow the exception thrown by a constructor or method, unwrapped if it is unchecked. */
+  private static RuntimeException rethrow(final InvocationTargetException ex) {
+    if (ex.getCause() instanceof RuntimeException cause) {
+      return cause;
+    }
+    else if (ex.getCause() instanceof Error cause) {
+      throw cause;
+    }
+    return new IllegalStateException(ex.getCause());
+  }
+
+  private static Class<?> load(final String className) {
+    try {
+      return Class.forName(className, false, ComponentRegistry.class.getClassLoader());
+    }
+    catch (final ClassNotFoundException ex) {
+      throw new IllegalStateException("Indexed class is missing: " + className, ex);
+    }
+  }
+
+  /** Find components the slow way, by scanning the classpath, when there is no index. */
+  private static void scan(final String basePackage, final Map<String, String> solverIndex,
+    final Map<String, String> componentIndex) {
+    final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+    for (final BeanDefinition definition : scanner.findCandidateComponents(basePackage)) {
+      final Class<?> type = load(definition.getBeanClassName());
+      final Component component = type.getAnnotation(Component.class);
+      // Configuration classes are only meta-annotated, and are not indexed either.
+      if (component != null) {
+        final String name = ComponentIndexProcessor.getBeanName(component.value(), type.getSimpleName());
+        (ISolver.class.isAssignableFrom(type) ? solverIndex : componentIndex).put(name, type.getName());
+      }
+    }
+  }
+
+  /** Read an index written by the annotation processor, or return null if it does not exist. */
+  private static Map<String, String> readIndex(final String resource) {
+    try (final InputStream in = ComponentRegistry.class.getClassLoader().getResourceAsStream(resource)) {
+      if (in == null) {
+        return null;
+      }
+      final Properties properties = new Properties();
+      properties.load(in);
+      final Map<String, String> index = new HashMap<>();
+      for (final String name : properties.stringPropertyNames()) {
+        index.put(name, properties.getProperty(name));
+      }
+      return index;
+    }
+    catch (final IOException ex) {
+      throw new IllegalStateException("Cannot read " + resource, ex);
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import us.coffeecode.project_euler.common.primes.CountingPrimeProvider;
+
+/**
+ * <p>
+ * Measures the resources used by the current thread between a start and a stop. Create one probe per measurement, and
+ * call both methods on the same thread.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+final class MetricsProbe {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+  /** Counts primes requested, or null if the prime provider is not instrumented. */
+  private final CountingPrimeProvider primes;
+
+  private long wall;
+
+  private long cpu;
+
+  private long allocated;
+
+  private long gcCount;
+
+  private long gcMillis;
+
+  private long primesRequested;
+
+  MetricsProbe(final CountingPrimeProvider counter) {
+    primes = counter;
+  }
+
+  void start() {
+    gcCount = gcCount();
+    gcMillis = gcMillis();
+    primesRequested = primesRequested();
+    allocated = allocatedBytes();
+    cpu = cpuNanos();
+    wall = System.nanoTime();
+  }
+
+  SolverMetrics stop() {
+    final long wallEnd = System.nanoTime();
+    final long cpuEnd = cpuNanos();
+    final long allocatedEnd = allocatedBytes();
+    return new SolverMetrics(wallEnd - wall, delta(cpu, cpuEnd), delta(allocated, allocatedEnd),
+      gcCount() - gcCount, gcMillis() - gcMillis, primesRequested() - primesRequested);
+  }
+
+  /** Get the difference between two measurements, or -1 if they are unavailable. */
+  private static long delta(final long start, final long end) {
+    return (start < 0) || (end < 0) ? -1 : end - start;
+  }
+
+  private static long cpuNanos() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  private static long allocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads.getCurrentThreadAllocatedBytes();
+    }
+    return -1;
+  }
+
+  private static long gcCount() {
+    return COLLECTORS.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+  }
+
+  private static long gcMillis() {
+    return COLLECTORS.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+  }
+
+  private long primesRequested() {
+    return primes == null ? 0 : primes.getPrimesRequested();
+  }
+
+}
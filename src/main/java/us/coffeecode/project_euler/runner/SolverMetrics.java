@@ -0,0 +1,86 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+/**
+ * <p>
+ * Resources used by one call to a solver. CPU time and allocated bytes are measured for the calling thread only, so
+ * they do not include work the solver hands to other threads, such as parallel streams. Garbage collection is measured
+ * for the whole JVM, so when solvers run concurrently, a collection is counted by every solver running at the time: run
+ * on one thread to attribute collections precisely. Any value that the JVM cannot measure is -1.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverMetrics {
+
+  private final long wallNanos;
+
+  private final long cpuNanos;
+
+  private final long allocatedBytes;
+
+  private final long gcCount;
+
+  private final long gcMillis;
+
+  private final long primesRequested;
+
+  SolverMetrics(final long wall, final long cpu, final long allocated, final long collections,
+    final long collectionMillis, final long primes) {
+    wallNanos = wall;
+    cpuNanos = cpu;
+    allocatedBytes = allocated;
+    gcCount = collections;
+    gcMillis = collectionMillis;
+    primesRequested = primes;
+  }
+
+  /** Get the wall clock time of the call, in nanoseconds. */
+  public long getWallNanos() {
+    return wallNanos;
+  }
+
+  /** Get the CPU time used by the calling thread, in nanoseconds. */
+  public long getCpuNanos() {
+    return cpuNanos;
+  }
+
+  /** Get the bytes allocated on the heap by the calling thread. */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /** Get the quantity of garbage collections in the JVM during the call. */
+  public long getGcCount() {
+    return gcCount;
+  }
+
+  /** Get the accumulated time of garbage collections in the JVM during the call, in milliseconds. */
+  public long getGcMillis() {
+    return gcMillis;
+  }
+
+  /** Get the quantity of primes returned by the prime provider to the calling thread. */
+  public long getPrimesRequested() {
+    return primesRequested;
+  }
+
+}
@@ -0,0 +1,170 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Formats solver results and their metrics as a console report sorted by any metric, as JSON, or as CSV. The JSON and
+ * CSV formats contain every metric in raw units (nanoseconds, bytes, milliseconds of garbage collection) so they can be
+ * compared between runs. Metrics are those of the first call to each solver, with the wall time, CPU time, and
+ * allocation of the last call added as warm metrics.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverReport {
+
+  private SolverReport() {
+    // Static methods only
+  }
+
+  /**
+   * Get a comparator that sorts results by the given metric, largest first. Ties are in ascending order of problem
+   * number.
+   *
+   * @param metric one of <code>id</code>, <code>wall</code>, <code>warm</code> (wall time of the last call),
+   * <code>cpu</code>, <code>alloc</code>, <code>gc</code>, or <code>primes</code>.
+   * @return the comparator.
+   */
+  public static Comparator<SolverResult> sortBy(final String metric) {
+    final Comparator<SolverResult> byId = Comparator.comparing(SolverResult::getId, SolverRunner.BY_PROBLEM);
+    final ToLongFunction<SolverResult> key = switch (metric) {
+      case "id" -> null;
+      case "wall" -> r -> r.getMetrics().getWallNanos();
+      case "warm" -> r -> r.getWarmMetrics().getWallNanos();
+      case "cpu" -> r -> r.getMetrics().getCpuNanos();
+      case "alloc" -> r -> r.getMetrics().getAllocatedBytes();
+      case "gc" -> r -> r.getMetrics().getGcMillis();
+      case "primes" -> r -> r.getMetrics().getPrimesRequested();
+      default -> throw new IllegalArgumentException("Unknown metric " + metric);
+    };
+    if (key == null) {
+      return byId;
+    }
+    return Comparator.comparingLong(key).reversed().thenComparing(byId);
+  }
+
+  /**
+   * Write a table of results, one line per solver, followed by totals.
+   *
+   * @param results the results.
+   * @param order the order in which to list the results.
+   * @param out the destination.
+   */
+  public static void writeConsole(final List<SolverResult> results, final Comparator<SolverResult> order,
+    final PrintWriter out) {
+    final List<SolverResult> sorted = new ArrayList<>(results);
+    sorted.sort(order);
+    out.printf("%4s %11s %11s %11s %11s %4s %8s %11s  %s%n", "id", "wall ms", "warm ms", "cpu ms", "alloc MB", "gc",
+      "gc ms", "primes", "result");
+    for (final SolverResult r : sorted) {
+      final SolverMetrics m = r.getMetrics();
+      out.printf(Locale.ROOT, "%4s %11.3f %11.3f %11.3f %11.3f %4d %8d %11d  %s%n", r.getId(),
+        Double.valueOf(m.getWallNanos() / 1e6), Double.valueOf(r.getWarmMetrics().getWallNanos() / 1e6),
+        Double.valueOf(m.getCpuNanos() / 1e6),
+        Double.valueOf(m.getAllocatedBytes() / (1024.0 * 1024.0)), Long.valueOf(m.getGcCount()),
+        Long.valueOf(m.getGcMillis()), Long.valueOf(m.getPrimesRequested()), r.getOutcome());
+    }
+    final long passed = results.stream().filter(SolverResult::isPassed).count();
+    out.printf(Locale.ROOT, "%d passed, %d failed. Sum of wall times %.3f ms, CPU times %.3f ms, allocated %.3f MB.%n",
+      Long.valueOf(passed), Long.valueOf(results.size() - passed), Double.valueOf(sum(results,
+        SolverMetrics::getWallNanos) / 1e6), Double.valueOf(sum(results, SolverMetrics::getCpuNanos) / 1e6),
+      Double.valueOf(sum(results, SolverMetrics::getAllocatedBytes) / (1024.0 * 1024.0)));
+    out.flush();
+  }
+
+  /**
+   * Write the results as a JSON array with one object per solver.
+   *
+   * @param results the results.
+   * @param out the destination.
+   */
+  public static void writeJson(final List<SolverResult> results, final PrintWriter out) {
+    out.println('[');
+    for (int i = 0; i < results.size(); ++i) {
+      final SolverResult r = results.get(i);
+      final SolverMetrics m = r.getMetrics();
+      final SolverMetrics w = r.getWarmMetrics();
+      out.printf("  {\"id\": %s, \"passed\": %b, \"expected\": %d, \"actual\": %d, \"error\": %s, \"wallNanos\": %d, "
+        + "\"cpuNanos\": %d, \"allocatedBytes\": %d, \"gcCount\": %d, \"gcMillis\": %d, \"primesRequested\": %d, "
+        + "\"warmWallNanos\": %d, \"warmCpuNanos\": %d, \"warmAllocatedBytes\": %d}%s%n", quote(r.getId()),
+        Boolean.valueOf(r.isPassed()), Long.valueOf(r.getExpected()), Long.valueOf(r.getActual()),
+        r.getError() == null ? "null" : quote(r.getError().toString()), Long.valueOf(m.getWallNanos()),
+        Long.valueOf(m.getCpuNanos()), Long.valueOf(m.getAllocatedBytes()), Long.valueOf(m.getGcCount()),
+        Long.valueOf(m.getGcMillis()), Long.valueOf(m.getPrimesRequested()), Long.valueOf(w.getWallNanos()),
+        Long.valueOf(w.getCpuNanos()), Long.valueOf(w.getAllocatedBytes()), i < results.size() - 1 ? "," : "");
+    }
+    out.println(']');
+    out.flush();
+  }
+
+  /**
+   * Write the results as CSV with a header line and one line per solver.
+   *
+   * @param results the results.
+   * @param out the destination.
+   */
+  public static void writeCsv(final List<SolverResult> results, final PrintWriter out) {
+    out.println("id,passed,expected,actual,error,wallNanos,cpuNanos,allocatedBytes,gcCount,gcMillis,primesRequested,"
+      + "warmWallNanos,warmCpuNanos,warmAllocatedBytes");
+    for (final SolverResult r : results) {
+      final SolverMetrics m = r.getMetrics();
+      final SolverMetrics w = r.getWarmMetrics();
+      out.printf("%s,%b,%d,%d,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d%n", r.getId(), Boolean.valueOf(r.isPassed()),
+        Long.valueOf(r.getExpected()), Long.valueOf(r.getActual()), r.getError() == null ? ""
+          : '"' + r.getError().toString().replace("\"", "\"\"") + '"',
+        Long.valueOf(m.getWallNanos()), Long.valueOf(m.getCpuNanos()), Long.valueOf(m.getAllocatedBytes()),
+        Long.valueOf(m.getGcCount()), Long.valueOf(m.getGcMillis()), Long.valueOf(m.getPrimesRequested()),
+        Long.valueOf(w.getWallNanos()), Long.valueOf(w.getCpuNanos()), Long.valueOf(w.getAllocatedBytes()));
+    }
+    out.flush();
+  }
+
+  /** Sum a metric over all results, ignoring any that are unavailable. */
+  private static long sum(final List<SolverResult> results, final ToLongFunction<SolverMetrics> metric) {
+    return results.stream().mapToLong(r -> metric.applyAsLong(r.getMetrics())).filter(v -> v > 0).sum();
+  }
+
+  /** Quote a string for JSON. */
+  static String quote(final String str) {
+    final StringBuilder quoted = new StringBuilder(str.length() + 2).append('"');
+    for (int i = 0; i < str.length(); ++i) {
+      final char c = str.charAt(i);
+      if ((c == '"') || (c == '\\')) {
+        quoted.append('\\').append(c);
+      }
+      else if (c < ' ') {
+        quoted.append(String.format("\\u%04x", Integer.valueOf(c)));
+      }
+      else {
+        quoted.append(c);
+      }
+    }
+    return quoted.append('"').toString();
+  }
+
+}
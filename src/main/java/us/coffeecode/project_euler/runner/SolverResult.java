@@ -0,0 +1,121 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+/**
+ * <p>
+ * Outcome of running one solver: its result compared with the expected result, and the resources it used.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverResult {
+
+  private final String id;
+
+  private final long expected;
+
+  private final long actual;
+
+  private final SolverMetrics metrics;
+
+  private final SolverMetrics warmMetrics;
+
+  private final Throwable error;
+
+  SolverResult(final String problem, final long expectedResult, final long actualResult, final SolverMetrics measured,
+    final Throwable thrown) {
+    this(problem, expectedResult, actualResult, measured, measured, thrown);
+  }
+
+  SolverResult(final String problem, final long expectedResult, final long actualResult, final SolverMetrics measured,
+    final SolverMetrics measuredWarm, final Throwable thrown) {
+    id = problem;
+    expected = expectedResult;
+    actual = actualResult;
+    metrics = measured;
+    warmMetrics = measuredWarm;
+    error = thrown;
+  }
+
+  /** Get the problem number, which is the solver's bean name. */
+  public String getId() {
+    return id;
+  }
+
+  /** Get the expected result. */
+  public long getExpected() {
+    return expected;
+  }
+
+  /**
+   * Get the actual result of the first call. This is meaningless if the solver threw an exception. If a later call
+   * returned something else, the solver is not repeatable and has an error.
+   */
+  public long getActual() {
+    return actual;
+  }
+
+  /** Get the wall clock time taken to calculate the actual result, in nanoseconds. */
+  public long getWallNanos() {
+    return metrics.getWallNanos();
+  }
+
+  /** Get the resources used by the first call to calculate the actual result. */
+  public SolverMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Get the resources used by the last call to calculate the actual result. If the solver was called repeatedly, this
+   * is the warm time after the JIT compiler has had a chance to optimize it. Otherwise, it is the same as
+   * {@link #getMetrics()}.
+   */
+  public SolverMetrics getWarmMetrics() {
+    return warmMetrics;
+  }
+
+  /** Get the exception thrown by the solver, or null if it returned normally. */
+  public Throwable getError() {
+    return error;
+  }
+
+  /** Get whether the solver returned the expected result. */
+  public boolean isPassed() {
+    return (error == null) && (expected == actual);
+  }
+
+  /** Get a description of whether the solver passed, and if not, why. */
+  public String getOutcome() {
+    if (error != null) {
+      return "ERROR " + error;
+    }
+    else if (expected == actual) {
+      return "PASS";
+    }
+    return "FAIL expected " + expected + " but was " + actual;
+  }
+
+  @Override
+  public String toString() {
+    return id + " " + getOutcome();
+  }
+
+}
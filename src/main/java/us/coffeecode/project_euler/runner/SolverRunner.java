@@ -0,0 +1,423 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.InjectionConfiguration;
+import us.coffeecode.project_euler.common.primes.CountingPrimeProvider;
+import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.registry.ComponentRegistry;
+
+/**
+ * <p>
+ * Runs solvers concurrently and checks their results. Unlike the JUnit test harnesses, which run one solver at a time,
+ * this runs every solver on a work-stealing pool, so a full pass takes about as long as the slowest solver instead of
+ * the sum of all of them.
+ * </p>
+ * <p>
+ * Solvers are discovered from the Spring context: every {@link ISolver} bean is a solver, and its bean name is the
+ * problem number. They are submitted longest expected job first, which keeps a long solver from starting last and
+ * running alone after everything else has finished. Expected times come from previous runs. A solver with no previous
+ * time is treated as the longest, since nothing is known about it.
+ * </p>
+ * <p>
+ * Every call to a solver is measured: wall time, CPU time, bytes allocated, garbage collections, and primes requested
+ * from the prime provider. Counting primes requires the prime provider to be wrapped in a
+ * {@link CountingPrimeProvider}, which {@link #createContext()} does.
+ * </p>
+ * <p>
+ * Each solver may be called more than once to measure it after the JIT compiler has warmed up. This also verifies that
+ * the solver is repeatable as {@link ISolver} requires: every call must return the same result, and allocation must not
+ * grow from call to call, which would mean the solver accumulates state between calls.
+ * </p>
+ * <p>
+ * The main method runs every solver, or the problem numbers given on the command line, and prints the results. It
+ * accepts these options:
+ * </p>
+ * <ul>
+ * <li><code>--threads N</code>: the parallelism of the pool. The default is the quantity of processors.</li>
+ * <li><code>--times PATH</code>: a properties file of solver times from previous runs, which is read before running and
+ * updated afterward. The default is {@value #DEFAULT_TIMES_FILE}.</li>
+ * <li><code>--sort METRIC</code>: the order of the console report, which is one of the metrics accepted by
+ * {@link SolverReport#sortBy(String)}. The default is <code>wall</code>, longest first.</li>
+ * <li><code>--json PATH</code>, <code>--csv PATH</code>: also write the results to a file in JSON or CSV format.</li>
+ * <li><code>--repeat N</code>: call each solver N times in a row. The default is one.</li>
+ * <li><code>--registry</code>: create only the requested solvers and their dependencies with a
+ * {@link ComponentRegistry} instead of a Spring context, which starts in milliseconds instead of about a second.</li>
+ * </ul>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverRunner {
+
+  /** Default location of the solver times from previous runs. */
+  static final String DEFAULT_TIMES_FILE = "target/solver-times.properties";
+
+  /** Orders problem numbers numerically. */
+  static final Comparator<String> BY_PROBLEM = Comparator.comparingInt(Integer::parseInt);
+
+  /**
+   * Allocation by the last of several calls may exceed twice that of the second call by this many bytes before the
+   * solver is considered to accumulate state. The slack absorbs noise in solvers that allocate very little.
+   */
+  static final long ALLOCATION_SLACK = 1 << 20;
+
+  private final Map<String, ISolver> solvers;
+
+  private final ForkJoinPool pool;
+
+  /** Counts primes requested by solvers, or null if the prime provider is not instrumented. */
+  private final CountingPrimeProvider primeCounter;
+
+  /**
+   * Constructs a <code>SolverRunner</code> for every solver in the given context. If the context's prime provider is a
+   * {@link CountingPrimeProvider}, primes requested are counted.
+   *
+   * @param context the Spring context.
+   * @param forkJoinPool the pool on which to run solvers.
+   */
+  public SolverRunner(final ApplicationContext context, final ForkJoinPool forkJoinPool) {
+    this(context.getBeansOfType(ISolver.class), forkJoinPool, context.getBeanProvider(CountingPrimeProvider.class)
+      .getIfAvailable());
+  }
+
+  /**
+   * Constructs a <code>SolverRunner</code> for the given solvers.
+   *
+   * @param solversById solvers keyed by problem number.
+   * @param forkJoinPool the pool on which to run solvers.
+   * @param counter the prime provider used by the solvers, or null to not count primes requested.
+   */
+  public SolverRunner(final Map<String, ISolver> solversById, final ForkJoinPool forkJoinPool,
+    final CountingPrimeProvider counter) {
+    solvers = new TreeMap<>(BY_PROBLEM);
+    solvers.putAll(solversById);
+    pool = forkJoinPool;
+    primeCounter = counter;
+  }
+
+  /**
+   * Create the Spring context for all solvers, with the prime provider wrapped in a {@link CountingPrimeProvider}.
+   *
+   * @return the context, which the caller must close.
+   */
+  public static ConfigurableApplicationContext createContext() {
+    final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        return countPrimes(bean);
+      }
+    });
+    context.register(InjectionConfiguration.class);
+    context.refresh();
+    return context;
+  }
+
+  /**
+   * Create a registry of all solvers, with the prime provider wrapped in a {@link CountingPrimeProvider}. Nothing is
+   * created until it is requested, so the prime provider exists only if a solver that needs it is requested.
+   *
+   * @param created receives the counting prime provider when it is created.
+   * @return the registry.
+   */
+  public static ComponentRegistry createRegistry(final Consumer<CountingPrimeProvider> created) {
+    return new ComponentRegistry(InjectionConfiguration.class, bean -> {
+      final Object processed = countPrimes(bean);
+      if (processed != bean) {
+        created.accept((CountingPrimeProvider) processed);
+      }
+      return processed;
+    });
+  }
+
+  /** Wrap a prime provider so it counts the primes it returns. Other beans are returned unchanged. */
+  private static Object countPrimes(final Object bean) {
+    if ((bean instanceof IPrimeProvider provider) && !(bean instanceof CountingPrimeProvider)) {
+      return new CountingPrimeProvider(provider);
+    }
+    return bean;
+  }
+
+  /** Get the problem numbers of every solver, in ascending order. */
+  public Collection<String> getIds() {
+    return solvers.keySet();
+  }
+
+  /**
+   * Run the given solvers concurrently and wait for all of them to finish.
+   *
+   * @param ids the problem numbers to run.
+   * @param expectedNanos expected time of each solver in nanoseconds, used to start the longest solvers first. Solvers
+   * missing from the map are started before all others.
+   * @return the results, in ascending order of problem number.
+   */
+  public List<SolverResult> run(final Collection<String> ids, final Map<String, Long> expectedNanos) {
+    return run(ids, expectedNanos, 1);
+  }
+
+  /**
+   * Run the given solvers concurrently, calling each one repeatedly, and wait for all of them to finish. A solver fails
+   * if its calls do not all return the same result, or if its allocation grows from call to call.
+   *
+   * @param ids the problem numbers to run.
+   * @param expectedNanos expected time of each solver in nanoseconds, used to start the longest solvers first. Solvers
+   * missing from the map are started before all others.
+   * @param calls how many times to call each solver, at least one.
+   * @return the results, in ascending order of problem number.
+   */
+  public List<SolverResult> run(final Collection<String> ids, final Map<String, Long> expectedNanos,
+    final int calls) {
+    if (calls < 1) {
+      throw new IllegalArgumentException("Calls must be positive: " + calls);
+    }
+    for (final String id : ids) {
+      if (!solvers.containsKey(id)) {
+        throw new IllegalArgumentException("No solver for problem " + id);
+      }
+    }
+    // Submissions from outside the pool are taken in the order submitted.
+    final List<ForkJoinTask<SolverResult>> tasks = new ArrayList<>(ids.size());
+    for (final String id : schedule(ids, expectedNanos)) {
+      final ISolver solver = solvers.get(id);
+      tasks.add(pool.submit(() -> run(id, solver, calls)));
+    }
+    final List<SolverResult> results = new ArrayList<>(tasks.size());
+    for (final ForkJoinTask<SolverResult> task : tasks) {
+      results.add(task.join());
+    }
+    results.sort(Comparator.comparing(SolverResult::getId, BY_PROBLEM));
+    return results;
+  }
+
+  /**
+   * Order problem numbers longest expected time first. Problems without an expected time are first, and ties are broken
+   * by problem number.
+   */
+  static List<String> schedule(final Collection<String> ids, final Map<String, Long> expectedNanos) {
+    final List<String> order = new ArrayList<>(ids);
+    order.sort(Comparator.<String> comparingLong(id -> expectedNanos.getOrDefault(id, Long.valueOf(Long.MAX_VALUE))
+      .longValue()).reversed().thenComparing(BY_PROBLEM));
+    return order;
+  }
+
+  /** Run one solver repeatedly, measuring each call and catching anything it throws. */
+  private SolverResult run(final String id, final ISolver solver, final int calls) {
+    final long expected = solver.getExpectedResult();
+    final MetricsProbe probe = new MetricsProbe(primeCounter);
+    probe.start();
+    final long actual;
+    try {
+      actual = solver.getActualResult();
+    }
+    catch (final RuntimeException | Error ex) {
+      return new SolverResult(id, expected, 0, probe.stop(), ex);
+    }
+    final SolverMetrics cold = probe.stop();
+    SolverMetrics second = cold;
+    SolverMetrics warm = cold;
+    for (int call = 2; call <= calls; ++call) {
+      probe.start();
+      final long repeated;
+      try {
+        repeated = solver.getActualResult();
+      }
+      catch (final RuntimeException | Error ex) {
+        return new SolverResult(id, expected, actual, cold, probe.stop(), ex);
+      }
+      warm = probe.stop();
+      if (call == 2) {
+        second = warm;
+      }
+      if (repeated != actual) {
+        return new SolverResult(id, expected, actual, cold, warm, new IllegalStateException("Call " + call
+          + " returned " + repeated + " but the first call returned " + actual));
+      }
+    }
+    if ((calls > 2) && isAllocationGrowing(second.getAllocatedBytes(), warm.getAllocatedBytes())) {
+      return new SolverResult(id, expected, actual, cold, warm, new IllegalStateException("Allocation grew from "
+        + second.getAllocatedBytes() + " bytes on call 2 to " + warm.getAllocatedBytes() + " bytes on call " + calls));
+    }
+    return new SolverResult(id, expected, actual, cold, warm, null);
+  }
+
+  /** Get whether allocation grew enough between two warm calls that the solver must be accumulating state. */
+  static boolean isAllocationGrowing(final long firstWarm, final long lastWarm) {
+    if ((firstWarm < 0) || (lastWarm < 0)) {
+      return false;
+    }
+    return lastWarm > (firstWarm << 1) + ALLOCATION_SLACK;
+  }
+
+  /** Read solver times from previous runs. Returns an empty map if the file does not exist. */
+  static Map<String, Long> readTimes(final Path path) throws IOException {
+    final Map<String, Long> times = new HashMap<>();
+    if (Files.exists(path)) {
+      final Properties properties = new Properties();
+      try (final Reader reader = Files.newBufferedReader(path)) {
+        properties.load(reader);
+      }
+      for (final String id : properties.stringPropertyNames()) {
+        times.put(id, Long.valueOf(properties.getProperty(id)));
+      }
+    }
+    return times;
+  }
+
+  /** Write solver times, including the times of solvers that did not run this time. */
+  static void writeTimes(final Path path, final Map<String, Long> previous, final List<SolverResult> results)
+    throws IOException {
+    final Properties properties = new Properties();
+    previous.forEach((id, nanos) -> properties.setProperty(id, nanos.toString()));
+    results.forEach(r -> properties.setProperty(r.getId(), Long.toString(r.getWallNanos())));
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    try (final Writer writer = Files.newBufferedWriter(path)) {
+      properties.store(writer, "Solver wall clock times in nanoseconds");
+    }
+  }
+
+  public static void main(final String[] args) throws IOException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path timesPath = Path.of(DEFAULT_TIMES_FILE);
+    Comparator<SolverResult> order = SolverReport.sortBy("wall");
+    Path jsonPath = null;
+    Path csvPath = null;
+    int calls = 1;
+    boolean registry = false;
+    final List<String> ids = new ArrayList<>();
+    try {
+      for (int i = 0; i < args.length; ++i) {
+        switch (args[i]) {
+          case "--threads" -> threads = Integer.parseInt(args[++i]);
+          case "--times" -> timesPath = Path.of(args[++i]);
+          case "--sort" -> order = SolverReport.sortBy(args[++i]);
+          case "--json" -> jsonPath = Path.of(args[++i]);
+          case "--csv" -> csvPath = Path.of(args[++i]);
+          case "--repeat" -> calls = Integer.parseInt(args[++i]);
+          case "--registry" -> registry = true;
+          default -> ids.add(args[i]);
+        }
+      }
+      if ((threads < 1) || (calls < 1)) {
+        throw new IllegalArgumentException("Threads and repeat must be positive");
+      }
+    }
+    catch (final ArrayIndexOutOfBoundsException ex) {
+      usage("Missing value for " + args[args.length - 1]);
+    }
+    catch (final IllegalArgumentException ex) {
+      usage(ex.getMessage());
+    }
+
+    final Map<String, Long> previous = readTimes(timesPath);
+    final ForkJoinPool pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    final List<SolverResult> results;
+    final long start = System.nanoTime();
+    try {
+      if (registry) {
+        // The prime provider is created only if a requested solver needs it, and primes are counted only then.
+        final AtomicReference<CountingPrimeProvider> counter = new AtomicReference<>();
+        final ComponentRegistry components = createRegistry(counter::set);
+        checkIds(ids, components.getSolverIds());
+        final Map<String, ISolver> solvers = new HashMap<>();
+        for (final String id : ids.isEmpty() ? components.getSolverIds() : ids) {
+          solvers.put(id, components.getSolver(id));
+        }
+        results = new SolverRunner(solvers, pool, counter.get()).run(solvers.keySet(), previous, calls);
+      }
+      else {
+        try (ConfigurableApplicationContext context = createContext()) {
+          final SolverRunner runner = new SolverRunner(context, pool);
+          checkIds(ids, runner.getIds());
+          results = runner.run(ids.isEmpty() ? runner.getIds() : ids, previous, calls);
+        }
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+    final long wall = System.nanoTime() - start;
+    writeTimes(timesPath, previous, results);
+    if (jsonPath != null) {
+      try (final PrintWriter out = new PrintWriter(Files.newBufferedWriter(jsonPath))) {
+        SolverReport.writeJson(results, out);
+      }
+    }
+    if (csvPath != null) {
+      try (final PrintWriter out = new PrintWriter(Files.newBufferedWriter(csvPath))) {
+        SolverReport.writeCsv(results, out);
+      }
+    }
+
+    final PrintWriter console = new PrintWriter(System.out);
+    SolverReport.writeConsole(results, order, console);
+    console.printf("Ran on %d threads. Wall time including startup %.3f ms.%n", Integer.valueOf(threads),
+      Double.valueOf(wall / 1e6));
+    console.flush();
+    if (!results.stream().allMatch(SolverResult::isPassed)) {
+      System.exit(1);
+    }
+  }
+
+  /** Exit with a usage error if any problem number has no solver. */
+  private static void checkIds(final List<String> ids, final Collection<String> known) {
+    for (final String id : ids) {
+      if (!known.contains(id)) {
+        usage("No solver for problem " + id);
+      }
+    }
+  }
+
+  /** Print an error and the command line syntax, and exit. */
+  private static void usage(final String message) {
+    System.err.println(message);
+    System.err.println("Usage: SolverRunner [--threads N] [--times PATH] [--sort METRIC] [--json PATH] [--csv PATH]"
+      + " [--repeat N] [--registry] [PROBLEM...]");
+    System.exit(2);
+  }
+
+}
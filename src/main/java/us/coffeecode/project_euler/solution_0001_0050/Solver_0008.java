@@ -17,11 +17,12 @@
 package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.io.IOException;
-import java.nio.file.Files;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -43,6 +44,9 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0008
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   private static final int LENGTH = 13;
 
   @Override
@@ -70,7 +74,7 @@ implements ISolver {
 
   private long[] getInput() {
     try {
-      return Files.readAllLines(getInputPath()).stream().mapToLong(Long::parseLong).toArray();
+      return inputCache.longs(getInputSource());
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -16,8 +16,6 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -29,7 +27,8 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
  * <a href="https://projecteuler.net/problem=10">Problem 10</a> asks us to find the sum of all primes below two million.
  * </p>
  * <p>
- * Simple problem with a simple solution.
+ * Simple problem with a simple solution. The primes are streamed from the prime provider and summed on every core,
+ * without copying them into an array.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -51,7 +50,7 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    return Arrays.stream(primeProvider.getPrimesEqualToOrLessThan(1_999_999)).asLongStream().sum();
+    return primeProvider.streamPrimesBetween(2, 1_999_999).parallel().asLongStream().sum();
   }
 
 }
@@ -17,13 +17,12 @@
 package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -44,6 +43,9 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0011
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   private static final int CONSECUTIVE = 4;
 
   @Override
@@ -100,12 +102,9 @@ implements ISolver {
     return max;
   }
 
-  private static final Pattern SEPARATOR = Pattern.compile(",");
-
   private int[][] loadInput() {
     try {
-      return Files.readAllLines(getInputPath()).stream().map(
-        s -> Stream.of(SEPARATOR.split(s)).mapToInt(Integer::parseInt).toArray()).toArray(int[][]::new);
+      return inputCache.rows(getInputSource());
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -16,16 +16,13 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
-import static java.math.BigInteger.ZERO;
-
 import java.io.IOException;
-import java.math.BigInteger;
-import java.nio.file.Files;
-import java.util.Collection;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -33,7 +30,9 @@ import us.coffeecode.project_euler.ISolver;
  * return the first ten digits.
  * </p>
  * <p>
- * This is a simple summation using BigInteger which can actually store the values.
+ * The numbers are too large for a long, so they are read as arrays of digits and added column by column, from the
+ * least significant digit up, carrying into the next column as in long addition. A column of 100 digits sums to at
+ * most 900, so the carry never overflows.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -45,6 +44,9 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0013
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   @Override
   public long getExpectedResult() {
     return 5_537_376_230L;
@@ -52,14 +54,36 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final BigInteger value = loadInput().stream().reduce(ZERO, (x, y) -> x.add(y));
-    final String digits = value.toString().substring(0, 10);
-    return Long.parseLong(digits);
+    final int[][] numbers = loadInput();
+    int width = 0;
+    for (final int[] number : numbers) {
+      width = Math.max(width, number.length);
+    }
+
+    // Digits of the sum, least significant first.
+    final int[] sum = new int[width + 20];
+    int length = 0;
+    long carry = 0;
+    for (int column = 0; (column < width) || (carry > 0); ++column) {
+      for (final int[] number : numbers) {
+        if (column < number.length) {
+          carry += number[number.length - 1 - column];
+        }
+      }
+      sum[length++] = (int) (carry % 10);
+      carry /= 10;
+    }
+
+    long result = 0;
+    for (int i = length - 1; i >= Math.max(0, length - 10); --i) {
+      result = result * 10 + sum[i];
+    }
+    return result;
   }
 
-  private Collection<BigInteger> loadInput() {
+  private int[][] loadInput() {
     try {
-      return Files.readAllLines(getInputPath()).stream().map(BigInteger::new).toList();
+      return inputCache.digits(getInputSource());
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -19,6 +19,7 @@ package us.coffeecode.project_euler.solution_0001_0050;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.TriangleMaxPath;
 
 /**
  * <p>
@@ -28,7 +29,8 @@ import us.coffeecode.project_euler.ISolver;
  * <p>
  * As the problem states, this is similar to problem 67
  * ({@link net.johngaughan.project_euler.solution_0051_0100.Solver_0067}). However, the input is small. Regardless, this
- * code uses the same algorithm for solving the problem so read the documentation for the other problem that I linked.
+ * code uses the same algorithm for solving the problem, in {@link TriangleMaxPath}, so read the documentation for the
+ * other problem that I linked.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -41,7 +43,7 @@ public class Solver_0018
 implements ISolver {
 
   // @formatter:off
-  private final int[][] TRIANGLE = new int[][] {
+  private static final int[][] TRIANGLE = new int[][] {
     {75},
     {95, 64},
     {17, 47, 82},
@@ -67,12 +69,7 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    for (int y = TRIANGLE.length - 2; y >= 0; --y) {
-      for (int x = 0; x < TRIANGLE[y].length; ++x) {
-        TRIANGLE[y][x] += Math.max(TRIANGLE[y + 1][x], TRIANGLE[y + 1][x + 1]);
-      }
-    }
-    return TRIANGLE[0][0];
+    return TriangleMaxPath.maximum(TRIANGLE);
   }
 
 }
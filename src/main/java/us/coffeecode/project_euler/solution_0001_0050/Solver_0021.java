@@ -22,7 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.Factorizer;
+import us.coffeecode.project_euler.common.ArithmeticFunctionTable;
 
 /**
  * <p>
@@ -44,7 +44,7 @@ public class Solver_0021
 implements ISolver {
 
   @Autowired
-  private Factorizer factorizer;
+  private ArithmeticFunctionTable arithmeticFunctions;
 
   @Override
   public long getExpectedResult() {
@@ -57,9 +57,9 @@ implements ISolver {
   }
 
   private boolean isAmicable(final int number) {
-    final int sumDivisors = IntStream.of(factorizer.apply(number)).sum();
-    if (sumDivisors != number) {
-      final int sumDivisorsOfSumDivisors = IntStream.of(factorizer.apply(sumDivisors)).sum();
+    final int sumDivisors = (int) arithmeticFunctions.getProperDivisorSum(number);
+    if ((sumDivisors != number) && (sumDivisors > 0)) {
+      final long sumDivisorsOfSumDivisors = arithmeticFunctions.getProperDivisorSum(sumDivisors);
       // Does applying the transform twice give the original number?
       return number == sumDivisorsOfSumDivisors;
     }
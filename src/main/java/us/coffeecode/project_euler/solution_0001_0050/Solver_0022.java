@@ -17,11 +17,13 @@
 package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -43,6 +45,9 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0022
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   @Override
   public long getExpectedResult() {
     return 871_198_282;
@@ -60,8 +65,15 @@ implements ISolver {
 
   private int[] getInput() {
     try {
-      return Files.readAllLines(getInputPath()).stream().sorted().mapToInt(
-        s -> s.codePoints().map(c -> c - 'A' + 1).sum()).toArray();
+      final byte[][] names = inputCache.lines(getInputSource());
+      Arrays.sort(names, Arrays::compare);
+      final int[] scores = new int[names.length];
+      for (int i = 0; i < names.length; ++i) {
+        for (final byte c : names[i]) {
+          scores[i] += c - 'A' + 1;
+        }
+      }
+      return scores;
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -18,13 +18,12 @@ package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.Factorizer;
+import us.coffeecode.project_euler.common.ArithmeticFunctionTable;
 
 /**
  * <p>
@@ -50,7 +49,7 @@ implements ISolver {
   private static final int LIMIT = 28_123;
 
   @Autowired
-  private Factorizer factorizer;
+  private ArithmeticFunctionTable arithmeticFunctions;
 
   @Override
   public long getExpectedResult() {
@@ -92,7 +91,7 @@ implements ISolver {
     final List<Integer> abundant = new ArrayList<>(6_961);
     // If 12 is the lower bound, then 28123-12 is the upper bound (add one, exclusive).
     for (int i = 12; i < 28_112; ++i) {
-      if (i < IntStream.of(factorizer.apply(i)).sum()) {
+      if (i < arithmeticFunctions.getProperDivisorSum(i)) {
         abundant.add(Integer.valueOf(i));
       }
     }
@@ -16,13 +16,12 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
 import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -67,6 +66,9 @@ implements ISolver {
   @Autowired
   private IPrimeProvider primeProvider;
 
+  @Autowired
+  private PrimalityCheck primalityCheck;
+
   @Override
   public long getExpectedResult() {
     return -59_231;
@@ -74,13 +76,12 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[] primes = primeProvider.getFirstNPrimes(1_299_709);
     final int[] candidateBs = primeProvider.getPrimesEqualToOrLessThan(LIMIT);
     int bestProduct = 0;
     int longestPrimeSequence = 0;
     for (int b : candidateBs) {
       for (int a = -b; a < LIMIT; a += 2) {
-        final int primeSequence = getPrimeSequenceLength(a, b, primes);
+        final int primeSequence = getPrimeSequenceLength(a, b);
         if (primeSequence > longestPrimeSequence) {
           bestProduct = a * b;
           longestPrimeSequence = primeSequence;
@@ -90,9 +91,9 @@ implements ISolver {
     return bestProduct;
   }
 
-  private int getPrimeSequenceLength(final int a, final int b, final int[] primes) {
+  private int getPrimeSequenceLength(final int a, final int b) {
     int n = 0;
-    while (0 <= Arrays.binarySearch(primes, (n * n) + (a * n) + b)) {
+    while (primalityCheck.test((n * n) + (a * n) + b)) {
       ++n;
     }
     return n;
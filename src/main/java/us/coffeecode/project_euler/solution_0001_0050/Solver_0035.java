@@ -19,7 +19,6 @@ package us.coffeecode.project_euler.solution_0001_0050;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -63,7 +62,7 @@ implements ISolver {
      * This removes numbers that cannot possibly have prime rotations. This significantly reduces the number of primes
      * to rotate, while also removing an odd dependency on iteration order due to certain primes containing a zero.
      */
-    final Collection<Integer> primes = IntStream.of(primeProvider.getPrimesEqualToOrLessThan(1_000_000)).filter(
+    final Collection<Integer> primes = primeProvider.streamPrimesBetween(2, 1_000_000).filter(
       this::mightBeRotatedPrime).boxed().collect(Collectors.toSet());
     int result = 0;
     // Keep getting a prime and checking for its rotations. Remove the primes checked.
@@ -16,13 +16,12 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
 import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -47,6 +46,9 @@ implements ISolver {
   @Autowired
   private IPrimeProvider primeProvider;
 
+  @Autowired
+  private PrimalityCheck primalityCheck;
+
   @Override
   public long getExpectedResult() {
     return 748_317;
@@ -57,7 +59,7 @@ implements ISolver {
     final int[] primes = primeProvider.getFirstNPrimes(60_000);
     int result = 0;
     for (int i = 4, found = 0; (i < primes.length) && (found < 11); ++i) {
-      if (isTruncatableRight(primes[i], primes) && isTruncatableLeft(primes[i], primes)) {
+      if (isTruncatableRight(primes[i]) && isTruncatableLeft(primes[i])) {
         ++found;
         result += primes[i];
       }
@@ -65,10 +67,10 @@ implements ISolver {
     return result;
   }
 
-  private boolean isTruncatableRight(final int value, final int[] primes) {
+  private boolean isTruncatableRight(final int value) {
     int v = value / 10;
     while (v > 0) {
-      if (Arrays.binarySearch(primes, v) < 0) {
+      if (!primalityCheck.test(v)) {
         return false;
       }
       v /= 10;
@@ -76,10 +78,10 @@ implements ISolver {
     return true;
   }
 
-  private boolean isTruncatableLeft(final int value, final int[] primes) {
+  private boolean isTruncatableLeft(final int value) {
     int v = truncateLeft(value);
     while (v > 0) {
-      if (Arrays.binarySearch(primes, v) < 0) {
+      if (!primalityCheck.test(v)) {
         return false;
       }
       v = truncateLeft(v);
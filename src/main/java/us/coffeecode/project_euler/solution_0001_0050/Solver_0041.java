@@ -16,6 +16,7 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
+import java.nio.IntBuffer;
 import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,8 +62,9 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[] primes = primeProvider.getPrimesEqualToOrLessThan(7_654_321);
-    return IntStream.iterate(primes.length - 1, (i -> i >= 0), (i -> i - 1)).map(i -> primes[i]).filter(
+    // The answer is close to the upper bound, so search the primes backwards straight from the buffer view.
+    final IntBuffer primes = primeProvider.getPrimesEqualToOrLessThanBuffer(7_654_321);
+    return IntStream.iterate(primes.limit() - 1, (i -> i >= 0), (i -> i - 1)).map(primes::get).filter(
       pandigital).findFirst().getAsInt();
   }
 
@@ -17,8 +17,7 @@
 package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -28,6 +27,7 @@ import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
 import us.coffeecode.project_euler.common.Triangular;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -48,6 +48,9 @@ import us.coffeecode.project_euler.common.Triangular;
 public class Solver_0042
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   @Autowired
   private Triangular triangular;
 
@@ -60,13 +63,20 @@ implements ISolver {
   public long getActualResult() {
     final Set<Integer> triangles =
       LongStream.rangeClosed(1, 100).map(triangular).mapToObj(l -> Integer.valueOf((int) l)).collect(Collectors.toSet());
-    return getScores().stream().filter(triangles::contains).count();
+    final int[] scores = getScores();
+    return Arrays.stream(scores).filter(s -> triangles.contains(Integer.valueOf(s))).count();
   }
 
-  private Collection<Integer> getScores() {
+  private int[] getScores() {
     try {
-      return Files.readAllLines(getInputPath()).stream().map(
-        s -> Integer.valueOf(s.codePoints().map(c -> c - 'A' + 1).sum())).toList();
+      final byte[][] words = inputCache.lines(getInputSource());
+      final int[] scores = new int[words.length];
+      for (int i = 0; i < words.length; ++i) {
+        for (final byte c : words[i]) {
+          scores[i] += c - 'A' + 1;
+        }
+      }
+      return scores;
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -17,7 +17,6 @@
 package us.coffeecode.project_euler.solution_0001_0050;
 
 import java.math.RoundingMode;
-import java.util.Arrays;
 import java.util.stream.IntStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +26,7 @@ import com.google.common.math.IntMath;
 
 import us.coffeecode.project_euler.ISolver;
 import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -50,6 +50,9 @@ implements ISolver {
   @Autowired
   private IPrimeProvider primeProvider;
 
+  @Autowired
+  private PrimalityCheck primalityCheck;
+
   @Override
   public long getExpectedResult() {
     return 5_777;
@@ -59,7 +62,7 @@ implements ISolver {
   public long getActualResult() {
     final int[] primes = primeProvider.getFirstNPrimes(1_000_000);
     return IntStream.iterate(35, i -> i > 0, i -> i + 2).filter(
-      i -> (Arrays.binarySearch(primes, i) < 0) && !test(i, primes)).findFirst().getAsInt();
+      i -> !primalityCheck.test(i) && !test(i, primes)).findFirst().getAsInt();
   }
 
   /** Test a number to see if it can be expressed as the sum of a prime and twice a square. */
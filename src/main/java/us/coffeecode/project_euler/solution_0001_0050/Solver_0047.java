@@ -20,8 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.PrimeFactorizer;
-import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.SmallestPrimeFactorTable;
 
 /**
  * <p>
@@ -29,9 +28,9 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
  * have four distinct prime factors each and return the first of those numbers.
  * </p>
  * <p>
- * Given the distribution of primes, this solution searches through quite a few numbers that cannot possibly be numbers.
- * However, it performs plenty quick and trying to skip over primes adds a bit of complexity that is not worth the
- * headache.
+ * This solution counts the distinct prime factors of a block of consecutive integers at a time using a table of
+ * smallest prime factors, then scans the block for a run of four. The run may span two blocks, so its length carries
+ * over from one block to the next.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -43,11 +42,12 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
 public class Solver_0047
 implements ISolver {
 
-  @Autowired
-  private IPrimeProvider primeProvider;
+  private static final int TARGET = 4;
+
+  private static final int BLOCK_SIZE = 4096;
 
   @Autowired
-  private PrimeFactorizer primeFactorizer;
+  private SmallestPrimeFactorTable smallestPrimeFactors;
 
   @Override
   public long getExpectedResult() {
@@ -56,29 +56,19 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[] primes = primeProvider.getFirstNPrimes(128);
-    int result = -1;
-    for (int i = 210; i < Integer.MAX_VALUE && result < 0; ++i) {
-      if (primeFactorizer.apply(primes, i).size() >= 4) {
-        if (primeFactorizer.apply(primes, i + 1).size() >= 4) {
-          if (primeFactorizer.apply(primes, i + 2).size() >= 4) {
-            if (primeFactorizer.apply(primes, i + 3).size() >= 4) {
-              result = i;
-            }
-            else {
-              i += 3;
-            }
-          }
-          else {
-            i += 2;
-          }
-        }
-        else {
-          ++i;
+    final int[] counts = new int[BLOCK_SIZE];
+    int run = 0;
+    // 210 is the smallest number with four distinct prime factors.
+    for (int first = 210; first <= smallestPrimeFactors.getBound() - BLOCK_SIZE; first += BLOCK_SIZE) {
+      smallestPrimeFactors.countDistinctPrimeFactors(first, counts);
+      for (int i = 0; i < counts.length; ++i) {
+        run = counts[i] >= TARGET ? run + 1 : 0;
+        if (run == TARGET) {
+          return first + i - TARGET + 1;
         }
       }
     }
-    return result;
+    return -1;
   }
 
 }
@@ -24,6 +24,7 @@ import org.springframework.stereotype.Component;
 import us.coffeecode.project_euler.ISolver;
 import us.coffeecode.project_euler.common.PermutationCheck;
 import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -49,6 +50,9 @@ implements ISolver {
   @Autowired
   private PermutationCheck permutations;
 
+  @Autowired
+  private PrimalityCheck primalityCheck;
+
   @Override
   public long getExpectedResult() {
     return 296_962_999_629L;
@@ -60,7 +64,7 @@ implements ISolver {
     for (int i = 0; i < primes.length; ++i) {
       for (int j = i + 1; j < primes.length; ++j) {
         final int k = (primes[j] << 1) - primes[i];
-        if ((0 <= Arrays.binarySearch(primes, k)) && permutations.test(primes[i], primes[j])
+        if ((k < 10_000) && primalityCheck.test(k) && permutations.test(primes[i], primes[j])
           && permutations.test(primes[i], k)) {
           return k + 10_000L * primes[j] + 100_000_000L * primes[i];
         }
@@ -16,13 +16,15 @@
  */
 package us.coffeecode.project_euler.solution_0001_0050;
 
-import java.util.Arrays;
+import java.nio.IntBuffer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
+import us.coffeecode.project_euler.common.primes.PrimeWindow;
+import us.coffeecode.project_euler.common.primes.PrimeWindows;
 
 /**
  * <p>
@@ -45,7 +47,10 @@ public class Solver_0050
 implements ISolver {
 
   @Autowired
-  private IPrimeProvider primeProvider;
+  private PrimeWindows primeWindows;
+
+  @Autowired
+  private PrimalityCheck primalityCheck;
 
   @Override
   public long getExpectedResult() {
@@ -54,8 +59,10 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[] primes = primeProvider.getPrimesEqualToOrLessThan(1_000_000);
-    final long[] primeSums = getSums(primes);
+    final long[] primeSums;
+    try (final PrimeWindow window = primeWindows.open(1_000_000)) {
+      primeSums = getSums(window.getPrimes());
+    }
     // Need to find the greatest prime value under 1,000,000 calculated by one of the following methods:
     // 1. Is a value in the list. Consecutive primes are the size of the list.
     // 2. Is a value computed by a difference of two sums in the list. Consecutive primes are the difference of the
@@ -70,7 +77,7 @@ implements ISolver {
           break;
         }
         final int diff = (int) (sj - si);
-        if ((j - i > consecutive) && (0 <= Arrays.binarySearch(primes, diff))) {
+        if ((j - i > consecutive) && primalityCheck.test(diff)) {
           result = sj - si;
           consecutive = j - i;
         }
@@ -83,11 +90,11 @@ implements ISolver {
    * Given primes, return a map of those primes mapped to the cumulative sum of all primes in the map equal to or lower
    * than that prime value. This is essentially dynamic programming for calculating sums of consecutive primes.
    */
-  private long[] getSums(final int[] primes) {
-    final long[] sums = new long[primes.length];
-    sums[0] = primes[0];
-    for (int i = 1; i < primes.length; ++i) {
-      sums[i] = sums[i - 1] + primes[i];
+  private long[] getSums(final IntBuffer primes) {
+    final long[] sums = new long[primes.limit()];
+    sums[0] = primes.get(0);
+    for (int i = 1; i < sums.length; ++i) {
+      sums[i] = sums[i - 1] + primes.get(i);
     }
     return sums;
   }
@@ -16,13 +16,11 @@
  */
 package us.coffeecode.project_euler.solution_0051_0100;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -66,11 +64,11 @@ implements ISolver {
   };
   // @formatter:on
 
-  private final IPrimeProvider primeProvider;
+  private final PrimalityCheck primalityCheck;
 
   @Autowired
-  public Solver_0051(final IPrimeProvider provider) {
-    primeProvider = provider;
+  public Solver_0051(final PrimalityCheck check) {
+    primalityCheck = check;
   }
 
   @Override
@@ -80,15 +78,14 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[] primes = primeProvider.getFirstNPrimes(1_000_000);
     for (int digits = 11; digits < 1_000; digits += 2) {
       if (digits % 5 == 0) {
         continue;
       }
       final boolean[][] patterns = (digits < 100) ? table5 : table6;
       for (final boolean[] pattern : patterns) {
-        if (getFamilySize(primes, pattern, digits) == 8) {
-          return getFirstPrime(primes, pattern, digits);
+        if (getFamilySize(pattern, digits) == 8) {
+          return getFirstPrime(pattern, digits);
         }
       }
     }
@@ -96,7 +93,7 @@ implements ISolver {
   }
 
   /** Get the size of the prime number family. */
-  private int getFamilySize(final int[] primes, final boolean[] pattern, final int digits) {
+  private int getFamilySize(final boolean[] pattern, final int digits) {
     int familySize = 0;
     int notEligible = 0;
     for (int i = 0; (i < 10) && (notEligible < 3); ++i) {
@@ -105,7 +102,7 @@ implements ISolver {
         continue;
       }
       final int num = makeNumber(pattern, digits, i);
-      if (0 <= Arrays.binarySearch(primes, num)) {
+      if (primalityCheck.test(num)) {
         ++familySize;
       }
       else {
@@ -116,10 +113,10 @@ implements ISolver {
   }
 
   /** Get the first prime number matching the given pattern. */
-  private int getFirstPrime(final int[] primes, final boolean[] pattern, final int digits) {
+  private int getFirstPrime(final boolean[] pattern, final int digits) {
     for (int i = 0; i < 3; ++i) {
       final int num = makeNumber(pattern, digits, i);
-      if (0 <= Arrays.binarySearch(primes, num)) {
+      if (primalityCheck.test(num)) {
         return num;
       }
     }
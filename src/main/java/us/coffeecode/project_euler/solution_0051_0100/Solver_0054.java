@@ -17,13 +17,13 @@
 package us.coffeecode.project_euler.solution_0051_0100;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.Arrays;
-import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -63,7 +63,8 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0054
 implements ISolver {
 
-  private static final Pattern SEPARATOR = Pattern.compile(" ");
+  @Autowired
+  private InputCache inputCache;
 
   private static final int RANK = 0;
 
@@ -86,7 +87,7 @@ implements ISolver {
    */
   private long[][] getInput() {
     try {
-      return Files.readAllLines(getInputPath()).stream().map(s -> convert(SEPARATOR.split(s))).map(this::score).toArray(
+      return Arrays.stream(inputCache.lines(getInputSource())).map(this::convert).map(this::score).toArray(
         long[][]::new);
     }
     catch (IOException ex) {
@@ -99,14 +100,14 @@ implements ISolver {
    * outermost array contains two hands, for players 1 and 2. The middle array contains five elements for their cards.
    * The innermost array contains two elements for the rank (e.g. queen) and suit (e.g. heart) of each card.
    */
-  private long[][][] convert(final String[] cards) {
-    // Cards come in as ten strings, five for each hand. Split them.
-    final long[][][] result = new long[2][cards.length >> 1][2];
+  private long[][][] convert(final byte[] cards) {
+    // Cards come in as one line of ten two-character cards separated by spaces, five for each hand. Split them.
+    final long[][][] result = new long[2][(cards.length + 1) / 6][2];
 
     for (int hand = 0; hand < result.length; ++hand) {
       for (int card = 0; card < result[hand].length; ++card) {
         // Set the rank.
-        final int rank = cards[5 * hand + card].codePointAt(RANK);
+        final int rank = cards[3 * (5 * hand + card) + RANK];
         result[hand][card][RANK] = switch (rank) {
           case '2' -> 0;
           case '3' -> 1;
@@ -125,7 +126,7 @@ implements ISolver {
         };
 
         // Set the suit.
-        final int suit = cards[5 * hand + card].codePointAt(SUIT);
+        final int suit = cards[3 * (5 * hand + card) + SUIT];
         result[hand][card][SUIT] = switch (suit) {
           case 'C' -> 0;
           case 'D' -> 1;
@@ -34,7 +34,7 @@ import us.coffeecode.project_euler.ISolver;
  * This is straightforward enough to implement. There are several caches which each provide a significant performance
  * increase. First, cache whether a number is a palindrome or not. This reduces BigInteger math significantly, which is
  * slow. Next, cache reverses of numbers for the same reason. Finally, cache sequence lengths which avoids roughly half
- * of the search tree.
+ * of the search tree. The caches belong to one call, so repeated calls do the same work.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -48,12 +48,6 @@ implements ISolver {
 
   private static final int ITERATIONS = 50;
 
-  private final Map<BigInteger, Boolean> palindromes = new HashMap<>();
-
-  private final Map<BigInteger, BigInteger> reverses = new HashMap<>();
-
-  private final Map<BigInteger, Integer> cache = new HashMap<>();
-
   @Override
   public long getExpectedResult() {
     return 249;
@@ -61,69 +55,81 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
+    final Search search = new Search();
     long result = 0;
     for (int i = 10; i < 10_000; ++i) {
-      if (isLychrel(BigInteger.valueOf(i))) {
+      if (search.isLychrel(BigInteger.valueOf(i))) {
         ++result;
       }
     }
     return result;
   }
 
-  private boolean isLychrel(final BigInteger number) {
-    return sequenceLength(number, 1) < 0;
-  }
+  /** Searches for Lychrel numbers, caching intermediate results. */
+  private static final class Search {
 
-  private int sequenceLength(final BigInteger number, final int iterations) {
-    final BigInteger next = number.add(reverse(number));
-    if (cache.containsKey(next)) {
-      return cache.get(next).intValue() + iterations;
-    }
+    private final Map<BigInteger, Boolean> palindromes = new HashMap<>();
 
-    // Found one!
-    if (isPalindrome(next)) {
-      cache.put(next, Integer.valueOf(0));
-      return iterations;
-    }
+    private final Map<BigInteger, BigInteger> reverses = new HashMap<>();
+
+    private final Map<BigInteger, Integer> cache = new HashMap<>();
 
-    // Recursed too far, get out.
-    if (iterations == ITERATIONS) {
-      return -1;
+    private boolean isLychrel(final BigInteger number) {
+      return sequenceLength(number, 1) < 0;
     }
 
-    // Recursive step
-    int result = sequenceLength(next, iterations + 1);
+    private int sequenceLength(final BigInteger number, final int iterations) {
+      final BigInteger next = number.add(reverse(number));
+      if (cache.containsKey(next)) {
+        return cache.get(next).intValue() + iterations;
+      }
 
-    // Not Lychrel
-    if (result == -1) {
-      return result;
-    }
+      // Found one!
+      if (isPalindrome(next)) {
+        cache.put(next, Integer.valueOf(0));
+        return iterations;
+      }
 
-    // Lychrel
-    cache.put(next, Integer.valueOf(iterations));
+      // Recursed too far, get out.
+      if (iterations == ITERATIONS) {
+        return -1;
+      }
 
-    return cache.get(next).intValue() + iterations;
-  }
+      // Recursive step
+      int result = sequenceLength(next, iterations + 1);
+
+      // Not Lychrel
+      if (result == -1) {
+        return result;
+      }
+
+      // Lychrel
+      cache.put(next, Integer.valueOf(iterations));
 
-  private boolean isPalindrome(final BigInteger n) {
-    if (!palindromes.containsKey(n)) {
-      palindromes.put(n, Boolean.valueOf(n.equals(reverse(n))));
+      return cache.get(next).intValue() + iterations;
     }
-    return palindromes.get(n).booleanValue();
-  }
 
-  protected BigInteger reverse(final BigInteger number) {
-    if (!reverses.containsKey(number)) {
-      BigInteger n = number;
-      BigInteger x = BigInteger.ZERO;
-      while (n.compareTo(BigInteger.ZERO) > 0) {
-        x = BigInteger.TEN.multiply(x);
-        x = x.add(n.mod(BigInteger.TEN));
-        n = n.divide(BigInteger.TEN);
+    private boolean isPalindrome(final BigInteger n) {
+      if (!palindromes.containsKey(n)) {
+        palindromes.put(n, Boolean.valueOf(n.equals(reverse(n))));
       }
-      reverses.put(number, x);
+      return palindromes.get(n).booleanValue();
     }
-    return reverses.get(number);
+
+    private BigInteger reverse(final BigInteger number) {
+      if (!reverses.containsKey(number)) {
+        BigInteger n = number;
+        BigInteger x = BigInteger.ZERO;
+        while (n.compareTo(BigInteger.ZERO) > 0) {
+          x = BigInteger.TEN.multiply(x);
+          x = x.add(n.mod(BigInteger.TEN));
+          n = n.divide(BigInteger.TEN);
+        }
+        reverses.put(number, x);
+      }
+      return reverses.get(number);
+    }
+
   }
 
 }
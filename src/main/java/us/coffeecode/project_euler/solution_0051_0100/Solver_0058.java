@@ -16,13 +16,11 @@
  */
 package us.coffeecode.project_euler.solution_0051_0100;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
-import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
 
 /**
  * <p>
@@ -30,8 +28,8 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
  * of a square spiral of numbers.
  * </p>
  * <p>
- * Brute force is the only way. The algorithm actually is fairly quick, with the bulk of the time spent on populating
- * the array of primes.
+ * Brute force is the only way. The algorithm actually is fairly quick, since checking each corner for primality is a
+ * constant time operation.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -43,11 +41,11 @@ import us.coffeecode.project_euler.common.primes.IPrimeProvider;
 public class Solver_0058
 implements ISolver {
 
-  private final int[] primes;
+  private final PrimalityCheck primalityCheck;
 
   @Autowired
-  public Solver_0058(final IPrimeProvider provider) {
-    primes = provider.getFirstNPrimes(36_000_000);
+  public Solver_0058(final PrimalityCheck check) {
+    primalityCheck = check;
   }
 
   @Override
@@ -68,13 +66,13 @@ implements ISolver {
       corners[1] = corners[0] + spacing;
       corners[2] = corners[1] + spacing;
       corners[3] = corners[2] + spacing;
-      if (0 <= Arrays.binarySearch(primes, corners[0])) {
+      if (primalityCheck.test(corners[0])) {
         ++numPrimes;
       }
-      if (0 <= Arrays.binarySearch(primes, corners[1])) {
+      if (primalityCheck.test(corners[1])) {
         ++numPrimes;
       }
-      if (0 <= Arrays.binarySearch(primes, corners[2])) {
+      if (primalityCheck.test(corners[2])) {
         ++numPrimes;
       }
     } while ((numPrimes * 10) >= ((sideLength << 1) - 1));
@@ -17,15 +17,15 @@
 package us.coffeecode.project_euler.solution_0051_0100;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.input.InputCache;
 
 /**
  * <p>
@@ -50,6 +50,9 @@ import us.coffeecode.project_euler.ISolver;
 public class Solver_0059
 implements ISolver {
 
+  @Autowired
+  private InputCache inputCache;
+
   @Override
   public long getExpectedResult() {
     return 129_448;
@@ -145,15 +148,13 @@ implements ISolver {
     return splitCipher;
   }
 
-  private static final Pattern SEPARATOR = Pattern.compile(",");
-
   /** Get the cipher from the file, where each character is represented by a byte. */
   private byte[] getInput() {
     try {
-      final String[] bytes = SEPARATOR.split(Files.readString(getInputPath()).trim());
+      final int[] bytes = inputCache.ints(getInputSource());
       final byte[] cipher = new byte[bytes.length];
       for (int i = 0; i < cipher.length; ++i) {
-        cipher[i] = Byte.parseByte(bytes[i]);
+        cipher[i] = (byte) bytes[i];
       }
       return cipher;
     }
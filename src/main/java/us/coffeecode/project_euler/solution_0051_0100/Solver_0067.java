@@ -17,13 +17,11 @@
 package us.coffeecode.project_euler.solution_0051_0100;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Arrays;
-import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Component;
 
 import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.common.TriangleMaxPath;
 
 /**
  * <p>
@@ -31,15 +29,15 @@ import us.coffeecode.project_euler.ISolver;
  * any path through a triangle.
  * </p>
  * <p>
- * This solver constructs a double array of integers, where each sub-array is one larger than the one that proceeds it.
- * Only the maximum value from the top to the bottom is required: not the path taken. This algorithm destructively
- * replaces the values in each row. At each step, take the larger of the two children (left is down one row, right is
- * down and right one) and add the value of the current node. That is the solution for that node. By the time the
- * algorithm iterates to the top row, with its single node, the solution is simply at index (0, 0). This avoid many
- * redundant calculations in the naive approach (depth probing), reducing the running time to O(n^2) where n is the
- * number of rows (also the width of the bottom row). This is similar to
- * {@link net.johngaughan.project_euler.solution_0001_0050.Solver_0018} and uses the same algorithm, except this one
- * loads input from a file.
+ * This solver reads the triangle one row at a time, from the top, keeping one row of sums. After each row, each sum
+ * is the maximum total of a path from the top to that number: the number itself, plus the larger of the sums for the
+ * two numbers above it. When the last row has been read, the answer is the largest sum. This avoids the many redundant
+ * calculations in the naive approach (depth probing), reducing the running time to O(n^2) where n is the number of
+ * rows (also the width of the bottom row). Only the maximum value from the top to the bottom is required: not the path
+ * taken. The rows are parsed straight from the input file into a reused buffer, so the triangle is never held in
+ * memory, and memory is O(n). {@link TriangleMaxPath} does the work, and is shared with
+ * {@link us.coffeecode.project_euler.solution_0001_0050.Solver_0018}, which solves the same problem for a small
+ * triangle in the source code.
  * </p>
  * <p>
  * Copyright (c) 2021 John Gaughan
@@ -58,25 +56,14 @@ implements ISolver {
 
   @Override
   public long getActualResult() {
-    final int[][] triangle = getInput();
-    for (int row = triangle.length - 2; row >= 0; --row) {
-      for (int col = 0; col < triangle[row].length; ++col) {
-        triangle[row][col] += Math.max(triangle[row + 1][col], triangle[row + 1][col + 1]);
-      }
-    }
-    return triangle[0][0];
-  }
-
-  private static final Pattern SEPARATOR = Pattern.compile(" ");
-
-  private int[][] getInput() {
+    final TriangleMaxPath path = new TriangleMaxPath(false);
     try {
-      return Files.readAllLines(getInputPath()).stream().map(
-        s -> Arrays.stream(SEPARATOR.split(s)).mapToInt(Integer::parseInt).toArray()).toArray(int[][]::new);
+      getInputSource().open().forEachRow(path);
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
     }
+    return path.getMaximum();
   }
 
 }
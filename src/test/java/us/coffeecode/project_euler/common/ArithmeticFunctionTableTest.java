@@ -0,0 +1,115 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.math.IntMath;
+import com.google.common.math.LongMath;
+
+/**
+ * <p>
+ * Test harness for {@link ArithmeticFunctionTable}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class ArithmeticFunctionTableTest {
+
+  private static final int BOUND = 100_000;
+
+  @Test
+  public void test_1() {
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    Assertions.assertEquals(1, table.getDivisorSum(1));
+    Assertions.assertEquals(0, table.getProperDivisorSum(1));
+    Assertions.assertEquals(1, table.getDivisorCount(1));
+    Assertions.assertEquals(1, table.getTotient(1));
+    Assertions.assertEquals(0, table.getDistinctPrimeFactorCount(1));
+  }
+
+  @Test
+  public void test_220() {
+    // 220 and 284 are the smallest amicable pair.
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    Assertions.assertEquals(284, table.getProperDivisorSum(220));
+    Assertions.assertEquals(220, table.getProperDivisorSum(284));
+    Assertions.assertEquals(12, table.getDivisorCount(220));
+    Assertions.assertEquals(80, table.getTotient(220));
+    Assertions.assertEquals(3, table.getDistinctPrimeFactorCount(220));
+  }
+
+  @Test
+  public void test_factorizer() {
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    final Factorizer factorizer = new Factorizer();
+    for (int i = 2; i <= 20_000; ++i) {
+      final int[] factors = factorizer.apply(i);
+      Assertions.assertEquals(IntStream.of(factors).sum(), table.getProperDivisorSum(i), Integer.toString(i));
+      Assertions.assertEquals(factors.length + 1, table.getDivisorCount(i), Integer.toString(i));
+    }
+  }
+
+  @Test
+  public void test_totient() {
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    for (int i = 1; i <= 5_000; ++i) {
+      final int n = i;
+      final long expected = IntStream.rangeClosed(1, n).filter(k -> IntMath.gcd(k, n) == 1).count();
+      Assertions.assertEquals(expected, table.getTotient(n), Integer.toString(n));
+    }
+  }
+
+  @Test
+  public void test_smallest_prime_factor_table() {
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    final SmallestPrimeFactorTable smallestPrimeFactors = new SmallestPrimeFactorTable(BOUND);
+    final int[] primes = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    final int[] exponents = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    for (int i = 1; i <= BOUND; ++i) {
+      final int found = smallestPrimeFactors.factor(i, primes, exponents);
+      long sigma = 1;
+      int divisors = 1;
+      long phi = i;
+      for (int j = 0; j < found; ++j) {
+        sigma *= (LongMath.pow(primes[j], exponents[j] + 1) - 1) / (primes[j] - 1);
+        divisors *= exponents[j] + 1;
+        phi = phi / primes[j] * (primes[j] - 1);
+      }
+      Assertions.assertEquals(sigma, table.getDivisorSum(i), Integer.toString(i));
+      Assertions.assertEquals(divisors, table.getDivisorCount(i), Integer.toString(i));
+      Assertions.assertEquals(phi, table.getTotient(i), Integer.toString(i));
+      Assertions.assertEquals(found, table.getDistinctPrimeFactorCount(i), Integer.toString(i));
+    }
+  }
+
+  @Test
+  public void test_bound() {
+    final ArithmeticFunctionTable table = new ArithmeticFunctionTable(BOUND);
+    Assertions.assertEquals(BOUND, table.getBound());
+    Assertions.assertEquals(40_000, table.getTotient(BOUND));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.getTotient(BOUND + 1));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.getTotient(0));
+  }
+
+}
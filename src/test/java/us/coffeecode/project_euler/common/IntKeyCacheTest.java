@@ -0,0 +1,113 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link IntKeyCache}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class IntKeyCacheTest {
+
+  @Test
+  public void test_get_put() {
+    final IntKeyCache<String> cache = new IntKeyCache<>(64);
+    Assertions.assertNull(cache.get(1));
+    cache.put(1, "one");
+    cache.put(-1, "minus one");
+    Assertions.assertEquals("one", cache.get(1));
+    Assertions.assertEquals("minus one", cache.get(-1));
+    cache.put(1, "uno");
+    Assertions.assertEquals("uno", cache.get(1));
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(3, cache.getHitCount());
+    Assertions.assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void test_compute_if_absent() {
+    final IntKeyCache<String> cache = new IntKeyCache<>(64);
+    Assertions.assertEquals("7", cache.computeIfAbsent(7, Integer::toString));
+    Assertions.assertEquals("7", cache.computeIfAbsent(7, k -> "not called"));
+    Assertions.assertEquals(1, cache.getHitCount());
+    Assertions.assertEquals(1, cache.getMissCount());
+    Assertions.assertThrows(NullPointerException.class, () -> cache.computeIfAbsent(8, k -> null));
+  }
+
+  @Test
+  public void test_bounded() {
+    final IntKeyCache<Integer> cache = new IntKeyCache<>(1_000);
+    for (int i = 0; i < 100_000; ++i) {
+      Assertions.assertEquals(i, cache.computeIfAbsent(i, Integer::valueOf).intValue());
+    }
+    Assertions.assertTrue(cache.size() <= cache.getCapacity());
+    Assertions.assertEquals(100_000 - cache.size(), cache.getEvictionCount());
+    // Every key still present must map to its own value after all the evictions and hash table shifts.
+    for (int i = 0; i < 100_000; ++i) {
+      final Integer value = cache.get(i);
+      Assertions.assertTrue((value == null) || (value.intValue() == i));
+    }
+    Assertions.assertEquals(cache.size(), cache.getHitCount());
+  }
+
+  @Test
+  public void test_clock() {
+    final IntKeyCache<Integer> cache = new IntKeyCache<>(1_000);
+    final int hot = 12_345;
+    cache.put(hot, Integer.valueOf(hot));
+    for (int i = 0; i < 100_000; ++i) {
+      // Reading the entry sets its reference bit, so the clock hand passes over it.
+      Assertions.assertNotNull(cache.get(hot));
+      cache.put(i, Integer.valueOf(i));
+    }
+  }
+
+  @Test
+  public void test_clear() {
+    final IntKeyCache<Integer> cache = new IntKeyCache<>(64);
+    IntStream.range(0, 64).forEach(i -> cache.put(i, Integer.valueOf(i)));
+    cache.clear();
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertNull(cache.get(0));
+  }
+
+  @Test
+  public void test_concurrent() {
+    final IntKeyCache<Integer> cache = new IntKeyCache<>(512);
+    IntStream.range(0, 8).parallel().forEach(seed -> {
+      final SplittableRandom random = new SplittableRandom(seed);
+      for (int i = 0; i < 200_000; ++i) {
+        final int key = random.nextInt(4_096);
+        Assertions.assertEquals(key, cache.computeIfAbsent(key, Integer::valueOf).intValue());
+      }
+    });
+    Assertions.assertEquals(1_600_000, cache.getHitCount() + cache.getMissCount());
+    Assertions.assertTrue(cache.size() <= cache.getCapacity());
+  }
+
+}
@@ -0,0 +1,79 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.common.primes.SegmentedSievePrimeProvider;
+
+/**
+ * <p>
+ * Test harness for {@link MillerRabin}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class MillerRabinTest {
+
+  private final MillerRabin millerRabin = new MillerRabin();
+
+  @Test
+  public void test_range() {
+    final int[] primes = new SegmentedSievePrimeProvider().getPrimesEqualToOrLessThan(1_000_000);
+    for (int i = -10; i <= 1_000_000; ++i) {
+      Assertions.assertEquals(Arrays.binarySearch(primes, i) >= 0, millerRabin.test(i), Integer.toString(i));
+    }
+  }
+
+  @Test
+  public void test_primes() {
+    Assertions.assertTrue(millerRabin.test(982_451_653));
+    Assertions.assertTrue(millerRabin.test(Integer.MAX_VALUE));
+    Assertions.assertTrue(millerRabin.test(2_305_843_009_213_693_951L));
+    Assertions.assertTrue(millerRabin.test(9_223_372_036_854_775_783L));
+  }
+
+  @Test
+  public void test_composites() {
+    // Carmichael numbers and strong pseudoprimes to many bases.
+    Assertions.assertFalse(millerRabin.test(561));
+    Assertions.assertFalse(millerRabin.test(3_215_031_751L));
+    Assertions.assertFalse(millerRabin.test(3_825_123_056_546_413_051L));
+    Assertions.assertFalse(millerRabin.test(3_037_000_493L * 3_037_000_453L));
+    Assertions.assertFalse(millerRabin.test(Long.MAX_VALUE));
+    Assertions.assertFalse(millerRabin.test(Long.MIN_VALUE));
+  }
+
+  @Test
+  public void test_random() {
+    final SplittableRandom random = new SplittableRandom(60);
+    for (int i = 0; i < 100_000; ++i) {
+      final long value = random.nextLong(Long.MAX_VALUE) | 1;
+      Assertions.assertEquals(BigInteger.valueOf(value).isProbablePrime(64), millerRabin.test(value),
+        Long.toString(value));
+    }
+  }
+
+}
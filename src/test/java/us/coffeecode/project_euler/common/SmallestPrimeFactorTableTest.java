@@ -0,0 +1,126 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.common.primes.SegmentedSievePrimeProvider;
+
+/**
+ * <p>
+ * Test harness for {@link SmallestPrimeFactorTable}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SmallestPrimeFactorTableTest {
+
+  private static final int BOUND = 300_000;
+
+  @Test
+  public void test_0() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    Assertions.assertEquals(0, table.factor(0, new int[0], new int[0]));
+    Assertions.assertEquals(0, table.countDistinctPrimeFactors(0));
+  }
+
+  @Test
+  public void test_1() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    Assertions.assertEquals(0, table.factor(1, new int[0], new int[0]));
+    Assertions.assertEquals(0, table.countDistinctPrimeFactors(1));
+  }
+
+  @Test
+  public void test_24() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    final int[] primes = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    final int[] exponents = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    Assertions.assertEquals(2, table.factor(24, primes, exponents));
+    Assertions.assertArrayEquals(new int[] { 2, 3 }, new int[] { primes[0], primes[1] });
+    Assertions.assertArrayEquals(new int[] { 3, 1 }, new int[] { exponents[0], exponents[1] });
+    Assertions.assertEquals(2, table.getSmallestPrimeFactor(24));
+  }
+
+  @Test
+  public void test_prime_factorizer() {
+    final int[] sieved = new SegmentedSievePrimeProvider().getPrimesEqualToOrLessThan(BOUND);
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    final PrimeFactorizer factorizer = new PrimeFactorizer();
+    final int[] primes = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    final int[] exponents = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    for (int i = 0; i <= BOUND; ++i) {
+      final List<int[]> expected = factorizer.apply(sieved, i);
+      final int found = table.factor(i, primes, exponents);
+      Assertions.assertEquals(expected.size(), found, Integer.toString(i));
+      for (int j = 0; j < found; ++j) {
+        Assertions.assertEquals(expected.get(j)[0], primes[j], Integer.toString(i));
+        Assertions.assertEquals(expected.get(j)[1], exponents[j], Integer.toString(i));
+      }
+    }
+  }
+
+  @Test
+  public void test_range() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    final int first = BOUND - 999;
+    final int[] offsets = new int[1001];
+    final int[] primes = new int[1000 * SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    final int[] exponents = new int[primes.length];
+    final int total = table.factorRange(first, offsets, primes, exponents);
+    final int[] counts = new int[1000];
+    table.countDistinctPrimeFactors(first, counts);
+
+    final int[] expectedPrimes = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    final int[] expectedExponents = new int[SmallestPrimeFactorTable.MAX_DISTINCT_FACTORS];
+    for (int i = 0; i < counts.length; ++i) {
+      final int found = table.factor(first + i, expectedPrimes, expectedExponents);
+      Assertions.assertEquals(found, offsets[i + 1] - offsets[i]);
+      Assertions.assertEquals(found, counts[i]);
+      for (int j = 0; j < found; ++j) {
+        Assertions.assertEquals(expectedPrimes[j], primes[offsets[i] + j]);
+        Assertions.assertEquals(expectedExponents[j], exponents[offsets[i] + j]);
+      }
+    }
+    Assertions.assertEquals(total, offsets[1000]);
+  }
+
+  @Test
+  public void test_primorial() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    final int[] primes = new int[6];
+    Assertions.assertEquals(6, table.factor(2 * 3 * 5 * 7 * 11 * 13, primes, null));
+    Assertions.assertArrayEquals(new int[] { 2, 3, 5, 7, 11, 13 }, primes);
+  }
+
+  @Test
+  public void test_bound() {
+    final SmallestPrimeFactorTable table = new SmallestPrimeFactorTable(BOUND);
+    Assertions.assertEquals(BOUND, table.getBound());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.countDistinctPrimeFactors(BOUND + 1));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.countDistinctPrimeFactors(BOUND, new int[2]));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.countDistinctPrimeFactors(-1));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.getSmallestPrimeFactor(1));
+  }
+
+}
@@ -0,0 +1,140 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.common.input.InputFile;
+
+/**
+ * <p>
+ * Test harness for {@link TriangleMaxPath}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class TriangleMaxPathTest {
+
+  private static final int[][] EXAMPLE = { { 3 }, { 7, 4 }, { 2, 4, 6 }, { 8, 5, 9, 3 } };
+
+  /** Find the maximum sum by trying every path. */
+  private static long bruteForce(final int[][] triangle, final int row, final int column) {
+    if (row == triangle.length - 1) {
+      return triangle[row][column];
+    }
+    return triangle[row][column]
+      + Math.max(bruteForce(triangle, row + 1, column), bruteForce(triangle, row + 1, column + 1));
+  }
+
+  private static int[][] random(final Random random, final int height) {
+    final int[][] triangle = new int[height][];
+    for (int r = 0; r < height; ++r) {
+      triangle[r] = random.ints(r + 1, 0, 100).toArray();
+    }
+    return triangle;
+  }
+
+  @Test
+  public void test_example() {
+    final TriangleMaxPath path = new TriangleMaxPath(true);
+    for (final int[] row : EXAMPLE) {
+      path.accept(row, row.length);
+    }
+    Assertions.assertEquals(4, path.getRows());
+    Assertions.assertEquals(23, path.getMaximum());
+    Assertions.assertArrayEquals(new int[] { 0, 0, 1, 2 }, path.getPath());
+    Assertions.assertEquals(23, TriangleMaxPath.maximum(EXAMPLE));
+  }
+
+  @Test
+  public void test_random() {
+    final Random random = new Random(18);
+    for (int height = 1; height <= 14; ++height) {
+      final int[][] triangle = random(random, height);
+      final TriangleMaxPath path = new TriangleMaxPath(true);
+      for (final int[] row : triangle) {
+        path.accept(row, row.length);
+      }
+      final long expected = bruteForce(triangle, 0, 0);
+      Assertions.assertEquals(expected, path.getMaximum());
+      Assertions.assertEquals(expected, TriangleMaxPath.maximum(triangle));
+
+      // The path must be connected and have the maximum sum.
+      final int[] columns = path.getPath();
+      Assertions.assertEquals(0, columns[0]);
+      long sum = 0;
+      for (int r = 0; r < height; ++r) {
+        if (r > 0) {
+          Assertions.assertTrue((columns[r] == columns[r - 1]) || (columns[r] == columns[r - 1] + 1));
+        }
+        sum += triangle[r][columns[r]];
+      }
+      Assertions.assertEquals(expected, sum);
+    }
+  }
+
+  @Test
+  public void test_stream() {
+    final StringBuilder text = new StringBuilder();
+    for (int r = 0; r < 300; ++r) {
+      for (int j = 0; j <= r; ++j) {
+        text.append(j == 0 ? "" : " ").append(j == r ? 99 : 1);
+      }
+      text.append('\n');
+    }
+    final TriangleMaxPath path = new TriangleMaxPath(true);
+    InputFile.wrap(ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII))).forEachRow(path);
+    Assertions.assertEquals(300 * 99, path.getMaximum());
+    final int[] columns = path.getPath();
+    for (int r = 0; r < columns.length; ++r) {
+      Assertions.assertEquals(r, columns[r]);
+    }
+  }
+
+  @Test
+  public void test_large() {
+    // The sum is too large for an int.
+    final int height = 100_000;
+    final int[] row = new int[height];
+    Arrays.fill(row, 99_999);
+    final TriangleMaxPath path = new TriangleMaxPath(false);
+    for (int r = 0; r < height; ++r) {
+      path.accept(row, r + 1);
+    }
+    Assertions.assertEquals(99_999L * height, path.getMaximum());
+  }
+
+  @Test
+  public void test_invalid() {
+    final TriangleMaxPath path = new TriangleMaxPath(false);
+    Assertions.assertThrows(IllegalStateException.class, () -> path.getMaximum());
+    Assertions.assertThrows(IllegalStateException.class, () -> path.getPath());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> path.accept(new int[] { 1, 2 }, 2));
+    path.accept(new int[] { 1 }, 1);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> path.accept(new int[] { 1, 2, 3 }, 3));
+  }
+
+}
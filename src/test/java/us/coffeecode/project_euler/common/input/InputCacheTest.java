@@ -0,0 +1,197 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link InputCache}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputCacheTest {
+
+  private Path directory;
+
+  private Path input;
+
+  @BeforeEach
+  public void before() throws Exception {
+    directory = Files.createTempDirectory("input-cache");
+    input = directory.resolve("input.txt");
+    Files.writeString(input, "1 2 3\n4 5\n");
+  }
+
+  @AfterEach
+  public void after() throws Exception {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void test_hit() throws Exception {
+    final InputCache cache = new InputCache(1 << 20, null);
+    final int[][] rows = cache.rows(InputSource.of(input));
+    Assertions.assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4, 5 } }, rows);
+    Assertions.assertArrayEquals(rows, cache.rows(InputSource.of(input)));
+    Assertions.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, cache.ints(InputSource.of(input)));
+    Assertions.assertEquals(1, cache.getHitCount());
+    Assertions.assertEquals(2, cache.getMissCount());
+    Assertions.assertEquals(2, cache.size());
+    final int[] ints = cache.ints(InputSource.of(input));
+    Assertions.assertEquals(InputCache.weigh(rows) + InputCache.weigh(ints), cache.getWeight());
+  }
+
+  @Test
+  public void test_copies() throws Exception {
+    final InputCache cache = new InputCache(1 << 20, null);
+    final int[][] rows = cache.rows(InputSource.of(input));
+    rows[0][0] = 99;
+    rows[1] = new int[0];
+    final int[] ints = cache.ints(InputSource.of(input));
+    ints[0] = 99;
+    // Modifying the arrays returned does not change the cached arrays.
+    Assertions.assertArrayEquals(new int[][] { { 1, 2, 3 }, { 4, 5 } }, cache.rows(InputSource.of(input)));
+    Assertions.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, cache.ints(InputSource.of(input)));
+    Assertions.assertNotSame(cache.lines(InputSource.of(input))[0], cache.lines(InputSource.of(input))[0]);
+    Assertions.assertEquals(3, cache.getHitCount());
+  }
+
+  @Test
+  public void test_modified() throws Exception {
+    final InputCache cache = new InputCache(1 << 20, null);
+    Assertions.assertArrayEquals(new long[] { 1, 2, 3, 4, 5 }, cache.longs(InputSource.of(input)));
+    Files.writeString(input, "6 7 8\n9 0\n");
+    Files.setLastModifiedTime(input, FileTime.fromMillis(Files.getLastModifiedTime(input).toMillis() + 2_000));
+    Assertions.assertArrayEquals(new long[] { 6, 7, 8, 9, 0 }, cache.longs(InputSource.of(input)));
+    Assertions.assertEquals(0, cache.getHitCount());
+    Assertions.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void test_eviction() throws Exception {
+    final Path other = directory.resolve("other.txt");
+    Files.writeString(other, "MARY\nPATRICIA\n");
+    final long weight = InputCache.weigh(new int[5]);
+    final InputCache cache = new InputCache(weight + InputCache.weigh(new int[][] { new int[3], new int[2] }), null);
+    cache.ints(InputSource.of(input));
+    cache.rows(InputSource.of(input));
+    Assertions.assertEquals(0, cache.getEvictionCount());
+    // Using the ints makes the rows the least recently used.
+    cache.ints(InputSource.of(input));
+    cache.lines(InputSource.of(other));
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(1, cache.getEvictionCount());
+    cache.ints(InputSource.of(input));
+    Assertions.assertEquals(2, cache.getHitCount());
+    Assertions.assertTrue(cache.getWeight() <= weight + InputCache.weigh(new int[][] { new int[3], new int[2] }));
+  }
+
+  @Test
+  public void test_too_large() throws Exception {
+    final InputCache cache = new InputCache(8, null);
+    Assertions.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, cache.ints(InputSource.of(input)));
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  public void test_sidecar() throws Exception {
+    final Path sidecars = directory.resolve("sidecars");
+    Files.writeString(input, "MARY\r\nPATRICIA\n\nLINDA\n");
+    final byte[][] lines = new InputCache(1 << 20, sidecars).lines(InputSource.of(input));
+    final int[][] digits = new InputCache(1 << 20, sidecars).digits(InputSource.of(input));
+
+    final InputCache cache = new InputCache(1 << 20, sidecars);
+    final byte[][] cachedLines = cache.lines(InputSource.of(input));
+    final int[][] cachedDigits = cache.digits(InputSource.of(input));
+    Assertions.assertEquals(2, cache.getSidecarHitCount());
+    Assertions.assertEquals(3, cachedLines.length);
+    for (int i = 0; i < lines.length; ++i) {
+      Assertions.assertArrayEquals(lines[i], cachedLines[i]);
+    }
+    Assertions.assertArrayEquals("LINDA".getBytes(StandardCharsets.US_ASCII), cachedLines[2]);
+    Assertions.assertArrayEquals(digits, cachedDigits);
+  }
+
+  @Test
+  public void test_sidecar_formats() throws Exception {
+    final Path sidecars = directory.resolve("sidecars");
+    final Path ints = directory.resolve("ints.txt");
+    Files.writeString(input, "1,-2,3\n4,9223372036854775807\n");
+    Files.writeString(ints, "-7 8");
+    final InputCache first = new InputCache(1 << 20, sidecars);
+    first.longs(InputSource.of(input));
+    first.ints(InputSource.of(ints));
+
+    final InputCache second = new InputCache(1 << 20, sidecars);
+    Assertions.assertArrayEquals(new long[] { 1, -2, 3, 4, Long.MAX_VALUE }, second.longs(InputSource.of(input)));
+    Assertions.assertArrayEquals(new int[] { -7, 8 }, second.ints(InputSource.of(ints)));
+    Assertions.assertEquals(2, second.getSidecarHitCount());
+
+    // Paths are normalized, so a sidecar written for one spelling of a path is found through another.
+    Files.writeString(input, "1,-2,3\n4,5\n");
+    first.rows(InputSource.of(directory.resolve("..").resolve(directory.getFileName()).resolve("input.txt")));
+    Assertions.assertArrayEquals(new int[][] { { 1, -2, 3 }, { 4, 5 } }, second.rows(InputSource.of(input)));
+    Assertions.assertEquals(3, second.getSidecarHitCount());
+  }
+
+  @Test
+  public void test_sidecar_corrupt() throws Exception {
+    final Path sidecars = directory.resolve("sidecars");
+    new InputCache(1 << 20, sidecars).ints(InputSource.of(input));
+    try (Stream<Path> paths = Files.list(sidecars)) {
+      for (final Path sidecar : paths.toList()) {
+        final byte[] bytes = Files.readAllBytes(sidecar);
+        // Claim far more values than the file holds.
+        bytes[28] = 0x7F;
+        Files.write(sidecar, bytes);
+      }
+    }
+    final InputCache cache = new InputCache(1 << 20, sidecars);
+    Assertions.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, cache.ints(InputSource.of(input)));
+    Assertions.assertEquals(0, cache.getSidecarHitCount());
+    // The corrupt sidecar was replaced.
+    final InputCache next = new InputCache(1 << 20, sidecars);
+    Assertions.assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, next.ints(InputSource.of(input)));
+    Assertions.assertEquals(1, next.getSidecarHitCount());
+  }
+
+  @Test
+  public void test_invalid() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new InputCache(0, null));
+  }
+
+}
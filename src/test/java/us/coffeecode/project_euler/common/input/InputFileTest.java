@@ -0,0 +1,139 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link InputFile}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputFileTest {
+
+  private static InputFile of(final String text) {
+    return InputFile.wrap(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  @Test
+  public void test_ints() {
+    Assertions.assertArrayEquals(new int[] { 8, 2, 22, -97, 0, 2_147_483_647 },
+      of("08,02 22\r\n-97,\n\n00,2147483647").ints());
+    Assertions.assertArrayEquals(new int[0], of("").ints());
+    Assertions.assertArrayEquals(new int[0], of(" ,\n").ints());
+  }
+
+  @Test
+  public void test_ints_overflow() {
+    Assertions.assertThrows(NumberFormatException.class, () -> of("2147483648").ints());
+    Assertions.assertThrows(NumberFormatException.class, () -> of("99999999999999999999").longs());
+  }
+
+  @Test
+  public void test_longs() {
+    Assertions.assertArrayEquals(new long[] { 7, 3, 9_223_372_036_854_775_807L, -1 },
+      of("7\n3\n9223372036854775807\n-1\n").longs());
+  }
+
+  @Test
+  public void test_rows() {
+    Assertions.assertArrayEquals(new int[][] { { 59 }, { 73, 41 }, { 52, 40, 9 } }, of("59\n73 41\n\n52 40 09").rows());
+    Assertions.assertArrayEquals(new int[][] { { 1, 2 }, { 3 } }, of("1,2\r\n3\r\n").rows());
+  }
+
+  @Test
+  public void test_digits() {
+    Assertions.assertArrayEquals(new int[][] { { 3, 7, 1 }, { 0, 4 } }, of("371\n04\n").digits());
+  }
+
+  @Test
+  public void test_forEachRow() {
+    final List<Integer> sums = new ArrayList<>();
+    of("1 2 3\n4 5\n6").forEachRow((row, length) -> {
+      int sum = 0;
+      for (int i = 0; i < length; ++i) {
+        sum += row[i];
+      }
+      sums.add(Integer.valueOf(sum));
+    });
+    Assertions.assertEquals(List.of(Integer.valueOf(6), Integer.valueOf(9), Integer.valueOf(6)), sums);
+  }
+
+  @Test
+  public void test_lines() {
+    final byte[][] lines = of("MARY\r\nPATRICIA\n\nLINDA").lines();
+    Assertions.assertEquals(3, lines.length);
+    Assertions.assertArrayEquals("MARY".getBytes(StandardCharsets.US_ASCII), lines[0]);
+    Assertions.assertArrayEquals("PATRICIA".getBytes(StandardCharsets.US_ASCII), lines[1]);
+    Assertions.assertArrayEquals("LINDA".getBytes(StandardCharsets.US_ASCII), lines[2]);
+  }
+
+  @Test
+  public void test_wrap_position() {
+    final ByteBuffer buffer = ByteBuffer.wrap("12,34,56".getBytes(StandardCharsets.US_ASCII));
+    buffer.position(3).limit(5);
+    Assertions.assertArrayEquals(new int[] { 34 }, InputFile.wrap(buffer).ints());
+    Assertions.assertEquals(3, buffer.position());
+  }
+
+  @Test
+  public void test_map() throws Exception {
+    final Path path = Files.createTempFile("input", ".txt");
+    try {
+      final StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 100_000; ++i) {
+        text.append(i).append(i % 10 == 9 ? '\n' : ',');
+      }
+      Files.writeString(path, text);
+      final InputFile input = InputFile.map(path);
+      final int[] values = input.ints();
+      Assertions.assertEquals(100_000, values.length);
+      for (int i = 0; i < values.length; ++i) {
+        Assertions.assertEquals(i, values[i]);
+      }
+      Assertions.assertEquals(10_000, input.rows().length);
+    }
+    finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void test_map_empty() throws Exception {
+    final Path path = Files.createTempFile("input", ".txt");
+    try {
+      Assertions.assertEquals(0, InputFile.map(path).lines().length);
+    }
+    finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.input;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link InputSource} and {@link MappedJar}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class InputSourceTest {
+
+  private static final byte[] STORED = "59\n73 41\n52 40 09\n".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] DEFLATED = "1,2,3\n".getBytes(StandardCharsets.US_ASCII);
+
+  private Path directory;
+
+  private Path jar;
+
+  @BeforeEach
+  public void before() throws Exception {
+    directory = Files.createTempDirectory("input-source");
+    jar = directory.resolve("inputs.jar");
+    try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+      zip.putNextEntry(new ZipEntry("deflated.txt"));
+      zip.write(DEFLATED);
+      final ZipEntry stored = new ZipEntry("data/stored.txt");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(STORED.length);
+      final CRC32 crc = new CRC32();
+      crc.update(STORED);
+      stored.setCrc(crc.getValue());
+      // An extra field in the local header only, which moves the data.
+      stored.setExtra(new byte[] { 0x34, 0x12, 2, 0, 0, 0 });
+      zip.putNextEntry(stored);
+      zip.write(STORED);
+      zip.closeEntry();
+    }
+  }
+
+  @AfterEach
+  public void after() throws Exception {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private URLClassLoader loader(final Path path) throws IOException {
+    return new URLClassLoader(new URL[] { path.toUri().toURL() }, null);
+  }
+
+  @Test
+  public void test_index() throws Exception {
+    final Map<String, ByteBuffer> entries = MappedJar.index(jar);
+    Assertions.assertEquals(1, entries.size());
+    final ByteBuffer stored = entries.get("data/stored.txt");
+    final byte[] bytes = new byte[stored.remaining()];
+    stored.get(bytes);
+    Assertions.assertArrayEquals(STORED, bytes);
+    Assertions.assertTrue(stored.isReadOnly());
+  }
+
+  @Test
+  public void test_index_not_zip() throws Exception {
+    final Path text = directory.resolve("text.jar");
+    Files.write(text, STORED);
+    Assertions.assertTrue(MappedJar.index(text).isEmpty());
+  }
+
+  @Test
+  public void test_jar_stored() throws Exception {
+    try (URLClassLoader loader = loader(jar)) {
+      final InputSource source = InputSource.resolve(loader, "data/stored.txt", directory.resolve("missing.txt"));
+      Assertions.assertEquals(jar.toString() + "!/data/stored.txt", source.getLocation());
+      Assertions.assertEquals("stored.txt", source.getName());
+      Assertions.assertEquals(STORED.length, source.getSize());
+      Assertions.assertEquals(Files.getLastModifiedTime(jar).toMillis(), source.getModified());
+      Assertions.assertArrayEquals(new int[][] { { 59 }, { 73, 41 }, { 52, 40, 9 } }, source.open().rows());
+      // Opening again starts from the beginning.
+      Assertions.assertEquals(6, source.open().ints().length);
+    }
+  }
+
+  @Test
+  public void test_jar_deflated() throws Exception {
+    try (URLClassLoader loader = loader(jar)) {
+      final InputSource source = InputSource.resolve(loader, "deflated.txt", directory.resolve("missing.txt"));
+      Assertions.assertTrue(source.getLocation().startsWith("jar:"));
+      Assertions.assertEquals(DEFLATED.length, source.getSize());
+      Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, source.open().ints());
+    }
+  }
+
+  @Test
+  public void test_directory() throws Exception {
+    final Path file = directory.resolve("input.txt");
+    Files.write(file, DEFLATED);
+    try (URLClassLoader loader = loader(directory)) {
+      final InputSource source = InputSource.resolve(loader, "input.txt", directory.resolve("missing.txt"));
+      Assertions.assertEquals(InputSource.of(file).getLocation(), source.getLocation());
+      Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, source.open().ints());
+    }
+  }
+
+  @Test
+  public void test_fallback() throws Exception {
+    final Path file = directory.resolve("fallback.txt");
+    Files.write(file, DEFLATED);
+    try (URLClassLoader loader = loader(jar)) {
+      final InputSource source = InputSource.resolve(loader, "fallback.txt", file);
+      Assertions.assertEquals(file.toAbsolutePath().toString(), source.getLocation());
+      Assertions.assertEquals(Files.getLastModifiedTime(file).toMillis(), source.getModified());
+      Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, source.open().ints());
+      Assertions.assertThrows(NoSuchFileException.class,
+        () -> InputSource.resolve(loader, "missing.txt", directory.resolve("missing.txt")));
+    }
+  }
+
+}
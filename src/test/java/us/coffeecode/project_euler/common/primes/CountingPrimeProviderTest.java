@@ -0,0 +1,64 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link CountingPrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class CountingPrimeProviderTest {
+
+  @Test
+  public void test_count() {
+    final CountingPrimeProvider provider = new CountingPrimeProvider(new SegmentedSievePrimeProvider());
+    Assertions.assertEquals(0, provider.getPrimesRequested());
+    Assertions.assertEquals(10, provider.getFirstNPrimes(10).length);
+    Assertions.assertEquals(10, provider.getPrimesRequested());
+    Assertions.assertEquals(25, provider.getPrimesEqualToOrLessThan(100).length);
+    Assertions.assertEquals(35, provider.getPrimesRequested());
+    Assertions.assertEquals(5, provider.getFirstNPrimesBuffer(5).remaining());
+    Assertions.assertEquals(40, provider.getPrimesRequested());
+    Assertions.assertEquals(4, provider.getPrimesEqualToOrLessThanBuffer(10).remaining());
+    Assertions.assertEquals(44, provider.getPrimesRequested());
+    Assertions.assertEquals(21, provider.streamPrimesBetween(11, 100).parallel().count());
+    Assertions.assertEquals(65, provider.getPrimesRequested());
+  }
+
+  @Test
+  public void test_count_per_thread() throws Exception {
+    final CountingPrimeProvider provider = new CountingPrimeProvider(new SegmentedSievePrimeProvider());
+    provider.getFirstNPrimes(10);
+    final long other = CompletableFuture.supplyAsync(() -> {
+      provider.getFirstNPrimes(3);
+      return Long.valueOf(provider.getPrimesRequested());
+    }).get().longValue();
+    Assertions.assertEquals(3, other);
+    Assertions.assertEquals(10, provider.getPrimesRequested());
+  }
+
+}
@@ -0,0 +1,418 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link FileCachePrimeProvider}. Results are checked against {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class FileCachePrimeProviderTest {
+
+  private static final int CEILING = 10_000_000;
+
+  private static int[] expected;
+
+  private static Path directory;
+
+  private static IPrimeProvider provider;
+
+  @BeforeAll
+  public static void before() throws Exception {
+    expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(CEILING);
+    directory = Files.createTempDirectory("primes");
+    provider = new FileCachePrimeProvider(directory.resolve("primes.bin"), new ParallelSievePrimeProvider());
+  }
+
+  @AfterAll
+  public static void after() throws Exception {
+    // Readers get primes while they are written, so the build may still be moving its file into place.
+    for (int attempt = 0;; ++attempt) {
+      try {
+        delete(directory);
+        return;
+      }
+      catch (final DirectoryNotEmptyException ex) {
+        if (attempt == 100) {
+          throw ex;
+        }
+        Thread.sleep(50);
+      }
+    }
+  }
+
+  @Test
+  public void test_firstN() {
+    Assertions.assertArrayEquals(expected, provider.getFirstNPrimes(expected.length));
+  }
+
+  @Test
+  public void test_firstN_0() {
+    Assertions.assertArrayEquals(new int[0], provider.getFirstNPrimes(0));
+  }
+
+  @Test
+  public void test_firstN_negative() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> provider.getFirstNPrimes(-1));
+  }
+
+  @Test
+  public void test_firstN_insufficient() {
+    Assertions.assertThrows(InsufficientPrimesAvailableException.class,
+      () -> provider.getFirstNPrimes(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void test_ceiling() {
+    Assertions.assertArrayEquals(expected, provider.getPrimesEqualToOrLessThan(CEILING));
+  }
+
+  @Test
+  public void test_ceiling_prime() {
+    final int[] actual = provider.getPrimesEqualToOrLessThan(expected[1000]);
+    Assertions.assertEquals(1001, actual.length);
+    Assertions.assertEquals(expected[1000], actual[1000]);
+  }
+
+  @Test
+  public void test_ceiling_small() {
+    Assertions.assertArrayEquals(new int[0], provider.getPrimesEqualToOrLessThan(1));
+    Assertions.assertArrayEquals(new int[] { 2 }, provider.getPrimesEqualToOrLessThan(2));
+    Assertions.assertArrayEquals(new int[] { 2, 3 }, provider.getPrimesEqualToOrLessThan(4));
+  }
+
+  @Test
+  public void test_ceiling_composite() {
+    final int[] actual = provider.getPrimesEqualToOrLessThan(expected[1000] + 1);
+    Assertions.assertEquals(1001, actual.length);
+  }
+
+  @Test
+  public void test_ceiling_beyond_limit() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    try {
+      final FileCachePrimeProvider limited = new FileCachePrimeProvider(dir.resolve("primes.bin"),
+        new ParallelSievePrimeProvider(), CEILING);
+      Assertions.assertEquals(IntBuffer.wrap(expected), limited.getPrimesEqualToOrLessThanBuffer(Integer.MAX_VALUE));
+      Assertions.assertThrows(InsufficientPrimesAvailableException.class,
+        () -> limited.getFirstNPrimes(expected.length + 1));
+      limited.awaitBuild();
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_extend() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final Path file = dir.resolve("primes.bin");
+    try {
+      final FileCachePrimeProvider growing = new FileCachePrimeProvider(file, new ParallelSievePrimeProvider());
+      // A small request only builds the minimum.
+      Assertions.assertArrayEquals(new int[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29 }, growing.getFirstNPrimes(10));
+      growing.awaitBuild();
+      Assertions.assertEquals(FileCachePrimeProvider.MIN_CEILING, PrimeFile.open(file).getCeiling());
+
+      // Larger requests sieve only the missing range and append it.
+      final int[] fiveMillion = growing.getPrimesEqualToOrLessThan(5_000_000);
+      Assertions.assertArrayEquals(Arrays.copyOf(expected, fiveMillion.length), fiveMillion);
+      growing.awaitBuild();
+      Assertions.assertEquals(5_000_000, PrimeFile.open(file).getCeiling());
+
+      // Growth is at least double, so this needs a ceiling of 10,000,000.
+      Assertions.assertArrayEquals(Arrays.copyOf(expected, 400_000), growing.getFirstNPrimes(400_000));
+      growing.awaitBuild();
+      Assertions.assertEquals(CEILING, PrimeFile.open(file).getCeiling());
+      Assertions.assertArrayEquals(expected, new FileCachePrimeProvider(file, new SievePrimeProvider())
+        .getPrimesEqualToOrLessThan(CEILING));
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_extend_single_pass() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final Path file = dir.resolve("primes.bin");
+    try {
+      final FileCachePrimeProvider growing = new FileCachePrimeProvider(file, new SievePrimeProvider(), CEILING);
+      Assertions.assertEquals(168, growing.getPrimesEqualToOrLessThan(1_000).length);
+      growing.awaitBuild();
+      Assertions.assertArrayEquals(expected, growing.getPrimesEqualToOrLessThan(CEILING));
+      growing.awaitBuild();
+      Assertions.assertEquals(PrimeFile.CHECKED_HEADER_BYTES + expected.length * Integer.BYTES, Files.size(file));
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_ceilingFor() {
+    final int[] primes = new SievePrimeProvider().getFirstNPrimes(100_000);
+    for (int n = 0; n <= primes.length; n += n < 100 ? 1 : 997) {
+      final int ceiling = FileCachePrimeProvider.ceilingFor(n);
+      Assertions.assertTrue((n == 0) || (primes[n - 1] <= ceiling));
+    }
+    Assertions.assertEquals(Integer.MAX_VALUE, FileCachePrimeProvider.ceilingFor(FileCachePrimeProvider.MAX_PRIMES));
+  }
+
+  @Test
+  public void test_buffer_firstN() {
+    final IntBuffer actual = provider.getFirstNPrimesBuffer(expected.length);
+    Assertions.assertTrue(actual.isReadOnly());
+    Assertions.assertEquals(IntBuffer.wrap(expected), actual);
+  }
+
+  @Test
+  public void test_buffer_ceiling() {
+    final IntBuffer actual = provider.getPrimesEqualToOrLessThanBuffer(CEILING);
+    Assertions.assertTrue(actual.isReadOnly());
+    Assertions.assertEquals(IntBuffer.wrap(expected), actual);
+  }
+
+  @Test
+  public void test_buffer_independent() {
+    final IntBuffer first = provider.getFirstNPrimesBuffer(10);
+    first.get();
+    final IntBuffer second = provider.getFirstNPrimesBuffer(10);
+    Assertions.assertEquals(0, second.position());
+    Assertions.assertEquals(2, second.get());
+  }
+
+  /** Write part of an array of primes to a channel, starting at the given index. */
+  private static void writePrimes(final FileChannel channel, final long start, final int[] primes, final int from,
+    final int to) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate((to - from) * Integer.BYTES);
+    buffer.asIntBuffer().put(primes, from, to - from);
+    long position = start + (long) from * Integer.BYTES;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  @Test
+  public void test_background() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final Path file = dir.resolve("primes.bin");
+    // Writes the primes up to 1,000, then waits to be released before writing the rest.
+    final CountDownLatch release = new CountDownLatch(1);
+    final ParallelSievePrimeProvider gated = new ParallelSievePrimeProvider() {
+
+      @Override
+      long write(final FileChannel channel, final long start, final int floor, final int ceiling,
+        final WaveListener listener) throws IOException {
+        if (floor > 0) {
+          return super.write(channel, start, floor, ceiling, listener);
+        }
+        final int[] primes = new SievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+        writePrimes(channel, start, primes, 0, 168);
+        listener.completed(168, 1_000);
+        try {
+          release.await();
+        }
+        catch (final InterruptedException ex) {
+          throw new IllegalStateException(ex);
+        }
+        writePrimes(channel, start, primes, 168, primes.length);
+        listener.completed(primes.length, ceiling);
+        return primes.length;
+      }
+    };
+    try {
+      final FileCachePrimeProvider background = new FileCachePrimeProvider(file, gated, CEILING);
+      // Warming up builds only the minimum, so this is extended below.
+      background.warmUp();
+      Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+        Assertions.assertEquals(168, background.getPrimesEqualToOrLessThan(1_000).length);
+        Assertions.assertArrayEquals(new int[] { 2, 3, 5, 7, 11 }, background.getFirstNPrimes(5));
+        Assertions.assertEquals(997, background.getFirstNPrimesBuffer(168).get(167));
+      });
+      Assertions.assertFalse(Files.exists(file));
+      release.countDown();
+      Assertions.assertArrayEquals(expected, background.getPrimesEqualToOrLessThan(CEILING));
+      background.awaitBuild();
+      Assertions.assertTrue(Files.exists(file));
+      Assertions.assertFalse(Files.exists(dir.resolve("primes.bin.part")));
+      Assertions.assertEquals(PrimeFile.CHECKED_HEADER_BYTES + expected.length * Integer.BYTES, Files.size(file));
+      Assertions.assertThrows(InsufficientPrimesAvailableException.class,
+        () -> background.getFirstNPrimes(expected.length + 1));
+    }
+    finally {
+      release.countDown();
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_background_single_pass() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final Path file = dir.resolve("primes.bin");
+    try {
+      final FileCachePrimeProvider background = new FileCachePrimeProvider(file, new SegmentedSievePrimeProvider(),
+        CEILING);
+      // Without a background build in progress, the first request starts one and waits for its primes.
+      Assertions.assertArrayEquals(expected, background.getFirstNPrimes(expected.length));
+      background.awaitBuild();
+      Assertions.assertArrayEquals(expected, new FileCachePrimeProvider(file, new SievePrimeProvider(), CEILING)
+        .getPrimesEqualToOrLessThan(CEILING));
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_background_failure() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    try {
+      final AtomicBoolean broken = new AtomicBoolean(true);
+      final IPrimeProvider failing = new SegmentedSievePrimeProvider() {
+
+        @Override
+        public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+          if (broken.get()) {
+            throw new IllegalStateException("broken");
+          }
+          return super.getPrimesEqualToOrLessThan(ceiling);
+        }
+      };
+      final FileCachePrimeProvider background = new FileCachePrimeProvider(dir.resolve("primes.bin"), failing,
+        CEILING);
+      final IllegalStateException ex = Assertions.assertThrows(IllegalStateException.class,
+        () -> background.getFirstNPrimes(1));
+      Assertions.assertEquals("broken", ex.getCause().getMessage());
+      Assertions.assertFalse(Files.exists(dir.resolve("primes.bin.part")));
+
+      // The failed build is forgotten, so the next request tries again.
+      broken.set(false);
+      Assertions.assertArrayEquals(new int[] { 2, 3, 5 }, background.getFirstNPrimes(3));
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_invalid() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final Path file = dir.resolve("primes.bin");
+    try {
+      // A file in the original format without a header, truncated by an interrupted write.
+      final ByteBuffer raw = ByteBuffer.allocate(1000 * Integer.BYTES);
+      raw.asIntBuffer().put(expected, 0, 1000);
+      Files.write(file, raw.array());
+      final FileCachePrimeProvider truncated = new FileCachePrimeProvider(file, new SievePrimeProvider(), CEILING);
+      Assertions.assertArrayEquals(expected, truncated.getPrimesEqualToOrLessThan(CEILING));
+      truncated.awaitBuild();
+      Assertions.assertEquals(PrimeFile.VERSION_CHECKED, PrimeFile.open(file).getVersion());
+
+      // Corrupt one prime in the generated file.
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 4), PrimeFile.CHECKED_HEADER_BYTES + 4);
+      }
+      final FileCachePrimeProvider corrupt = new FileCachePrimeProvider(file, new SievePrimeProvider(), CEILING);
+      Assertions.assertArrayEquals(expected, corrupt.getPrimesEqualToOrLessThan(CEILING));
+      corrupt.awaitBuild();
+
+      // A file sieved to a lower ceiling than required.
+      final FileCachePrimeProvider higher = new FileCachePrimeProvider(file, new SievePrimeProvider(), CEILING + 1000);
+      Assertions.assertArrayEquals(new SievePrimeProvider().getPrimesEqualToOrLessThan(CEILING + 1000),
+        higher.getPrimesEqualToOrLessThan(CEILING + 1000));
+      higher.awaitBuild();
+    }
+    finally {
+      delete(dir);
+    }
+  }
+
+  @Test
+  public void test_concurrent() throws Exception {
+    final Path dir = Files.createTempDirectory("primes");
+    final AtomicInteger generated = new AtomicInteger();
+    final IPrimeProvider counting = new SievePrimeProvider() {
+
+      @Override
+      public int[] getPrimesEqualToOrLessThan(final int ceiling) {
+        generated.incrementAndGet();
+        return super.getPrimesEqualToOrLessThan(ceiling);
+      }
+    };
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      // Each provider stands in for a separate process starting with no cache.
+      final List<Future<int[]>> results = new ArrayList<>();
+      for (int i = 0; i < 4; ++i) {
+        final FileCachePrimeProvider concurrent = new FileCachePrimeProvider(dir.resolve("primes.bin"), counting,
+          CEILING);
+        results.add(executor.submit(() -> {
+          final int[] primes = concurrent.getPrimesEqualToOrLessThan(CEILING);
+          concurrent.awaitBuild();
+          return primes;
+        }));
+      }
+      for (final Future<int[]> result : results) {
+        Assertions.assertArrayEquals(expected, result.get());
+      }
+      Assertions.assertEquals(1, generated.get());
+    }
+    finally {
+      executor.shutdown();
+      delete(dir);
+    }
+  }
+
+  /** Delete a directory containing a cache, along with the cache and its temporary and lock files. */
+  private static void delete(final Path dir) throws IOException {
+    Files.deleteIfExists(dir.resolve("primes.bin"));
+    Files.deleteIfExists(dir.resolve("primes.bin.part"));
+    Files.deleteIfExists(dir.resolve("primes.bin.lock"));
+    Files.delete(dir);
+  }
+
+}
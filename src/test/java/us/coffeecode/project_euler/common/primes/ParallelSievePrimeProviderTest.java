@@ -0,0 +1,154 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link ParallelSievePrimeProvider}. Results are checked against {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class ParallelSievePrimeProviderTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(3);
+
+  @AfterEach
+  public void after() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void test_ceiling_small() {
+    for (int ceiling = 0; ceiling < 200; ++ceiling) {
+      final int[] expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+      final int[] actual = new ParallelSievePrimeProvider(pool).getPrimesEqualToOrLessThan(ceiling);
+      Assertions.assertArrayEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void test_ceiling_100000000() {
+    final int[] expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(100_000_000);
+    final int[] actual = new ParallelSievePrimeProvider(pool).getPrimesEqualToOrLessThan(100_000_000);
+    Assertions.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void test_write() throws Exception {
+    final int[] expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(50_000_000);
+    final Path file = Files.createTempFile("primes", ".bin");
+    try (final FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+      final long written = new ParallelSievePrimeProvider(pool).write(channel, 50_000_000);
+      Assertions.assertEquals(expected.length, written);
+      final ByteBuffer buffer = ByteBuffer.allocate(expected.length * Integer.BYTES);
+      channel.read(buffer, 0);
+      buffer.flip();
+      final int[] actual = new int[expected.length];
+      buffer.asIntBuffer().get(actual);
+      Assertions.assertArrayEquals(expected, actual);
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void test_write_range() throws Exception {
+    // The range starts part way through a chunk and spans several more.
+    final int floor = 20_000_001;
+    final int ceiling = 90_000_000;
+    final int[] all = new SievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+    final int from = -Arrays.binarySearch(all, floor) - 1;
+    final int[] expected = Arrays.copyOfRange(all, from, all.length);
+    final Path file = Files.createTempFile("primes", ".bin");
+    try (final FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+      final List<Long> progress = new ArrayList<>();
+      final long written = new ParallelSievePrimeProvider(pool).write(channel, 12, floor, ceiling,
+        (primes, through) -> progress.add(Long.valueOf(through)));
+      Assertions.assertEquals(expected.length, written);
+      Assertions.assertEquals(12 + expected.length * Integer.BYTES, channel.size());
+      final ByteBuffer buffer = ByteBuffer.allocate(expected.length * Integer.BYTES);
+      channel.read(buffer, 12);
+      buffer.flip();
+      final int[] actual = new int[expected.length];
+      buffer.asIntBuffer().get(actual);
+      Assertions.assertArrayEquals(expected, actual);
+      Assertions.assertEquals(Long.valueOf(ceiling), progress.get(progress.size() - 1));
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void test_write_progress() throws Exception {
+    // One thread sieves four chunks per wave, so this takes a few waves.
+    final int ceiling = 150_000_000;
+    final int[] expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+    final List<long[]> progress = new ArrayList<>();
+    final Path file = Files.createTempFile("primes", ".bin");
+    final ForkJoinPool single = new ForkJoinPool(1);
+    try (final FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+      new ParallelSievePrimeProvider(single).write(channel, 0, 0, ceiling, (primes, through) -> {
+        // Every prime up to the value reported is already in the file.
+        final int index = Arrays.binarySearch(expected, (int) through);
+        Assertions.assertEquals(index < 0 ? -index - 1 : index + 1, primes);
+        final ByteBuffer last = ByteBuffer.allocate(Integer.BYTES);
+        try {
+          channel.read(last, (primes - 1) * Integer.BYTES);
+        }
+        catch (final IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        Assertions.assertEquals(expected[(int) primes - 1], last.getInt(0));
+        progress.add(new long[] { primes, through });
+      });
+    }
+    finally {
+      single.shutdown();
+      Files.delete(file);
+    }
+    Assertions.assertTrue(progress.size() > 1);
+    for (int i = 1; i < progress.size(); ++i) {
+      Assertions.assertTrue(progress.get(i)[1] > progress.get(i - 1)[1]);
+    }
+    Assertions.assertArrayEquals(new long[] { expected.length, ceiling }, progress.get(progress.size() - 1));
+  }
+
+}
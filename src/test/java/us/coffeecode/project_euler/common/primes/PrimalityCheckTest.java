@@ -0,0 +1,113 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.common.MillerRabin;
+
+/**
+ * <p>
+ * Test harness for {@link PrimalityCheck}. The bitset is kept small so the Miller-Rabin test is also checked against
+ * {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimalityCheckTest {
+
+  private static int[] primes;
+
+  private static PrimalityCheck check;
+
+  @BeforeAll
+  public static void before() {
+    primes = new SievePrimeProvider().getPrimesEqualToOrLessThan(2_000_000);
+    check = new PrimalityCheck(new SievePrimeProvider(), new MillerRabin(), 100_000);
+  }
+
+  @Test
+  public void test_range() {
+    for (int i = -10; i <= 2_000_000; ++i) {
+      Assertions.assertEquals(Arrays.binarySearch(primes, i) >= 0, check.test(i), Integer.toString(i));
+    }
+  }
+
+  @Test
+  public void test_grow() {
+    final List<Integer> ceilings = new ArrayList<>();
+    final PrimalityCheck growing = new PrimalityCheck(new SievePrimeProvider() {
+
+      @Override
+      public IntBuffer getPrimesEqualToOrLessThanBuffer(final int ceiling) {
+        ceilings.add(Integer.valueOf(ceiling));
+        return super.getPrimesEqualToOrLessThanBuffer(ceiling);
+      }
+    }, new MillerRabin(), 1_000_000);
+    Assertions.assertTrue(growing.test(7));
+    Assertions.assertFalse(growing.test(9));
+    // The bitset starts small, and is only rebuilt for a number beyond it.
+    Assertions.assertEquals(List.of(Integer.valueOf(65_535)), ceilings);
+    Assertions.assertTrue(growing.test(100_003));
+    Assertions.assertTrue(growing.test(131_071));
+    Assertions.assertEquals(List.of(Integer.valueOf(65_535), Integer.valueOf(131_071)), ceilings);
+    // Growth stops at the ceiling.
+    Assertions.assertTrue(growing.test(999_983));
+    Assertions.assertTrue(growing.test(1_000_003));
+    Assertions.assertEquals(Integer.valueOf(1_000_000), ceilings.get(ceilings.size() - 1));
+    for (int i = -10; i <= 1_100_000; ++i) {
+      Assertions.assertEquals(Arrays.binarySearch(primes, i) >= 0, growing.test(i), Integer.toString(i));
+    }
+  }
+
+  @Test
+  public void test_large_primes() {
+    Assertions.assertTrue(check.test(982_451_653));
+    Assertions.assertTrue(check.test(2_147_483_629));
+    Assertions.assertTrue(check.test(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void test_large_composites() {
+    // Strong pseudoprimes to some of the bases.
+    Assertions.assertFalse(check.test(2_047));
+    Assertions.assertFalse(check.test(1_373_653));
+    Assertions.assertFalse(check.test(25_326_001));
+    Assertions.assertFalse(check.test(46_337 * 46_327));
+    Assertions.assertFalse(check.test(Integer.MIN_VALUE));
+    Assertions.assertFalse(check.test(Integer.MAX_VALUE - 1));
+  }
+
+  @Test
+  public void test_long() {
+    Assertions.assertTrue(check.test(17L));
+    Assertions.assertFalse(check.test(-17L));
+    Assertions.assertTrue(check.test(2_305_843_009_213_693_951L));
+    Assertions.assertFalse(check.test(Long.MAX_VALUE));
+  }
+
+}
@@ -0,0 +1,179 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link PrimeFile}. Every file format is checked against {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimeFileTest {
+
+  private static final int CEILING = 1_000_000;
+
+  private static int[] expected;
+
+  private static Path rawPath;
+
+  private static Path compactPath;
+
+  private static Path checkedPath;
+
+  @BeforeAll
+  public static void before() throws Exception {
+    expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(CEILING);
+    rawPath = Files.createTempFile("primes", ".bin");
+    final ByteBuffer raw = ByteBuffer.allocate(expected.length * Integer.BYTES);
+    raw.asIntBuffer().put(expected);
+    Files.write(rawPath, raw.array());
+    compactPath = Files.createTempFile("primes", ".bin");
+    PrimeFile.writeCompact(compactPath, CEILING);
+    checkedPath = Files.createTempFile("primes", ".bin");
+    try (final FileChannel channel = FileChannel.open(checkedPath, READ, WRITE)) {
+      channel.write(ByteBuffer.wrap(raw.array()), PrimeFile.CHECKED_HEADER_BYTES);
+      PrimeFile.writeCheckedHeader(channel, expected.length, CEILING);
+    }
+  }
+
+  @AfterAll
+  public static void after() throws Exception {
+    Files.delete(rawPath);
+    Files.delete(compactPath);
+    Files.delete(checkedPath);
+  }
+
+  private void testFile(final Path path, final int version) throws Exception {
+    final PrimeFile file = PrimeFile.open(path);
+    Assertions.assertEquals(version, file.getVersion());
+    Assertions.assertEquals(expected.length, file.size());
+
+    final int[] all = new int[expected.length];
+    file.get(all);
+    Assertions.assertArrayEquals(expected, all);
+
+    for (int i = 0; i < expected.length; ++i) {
+      Assertions.assertEquals(expected[i], file.get(i));
+    }
+    for (int value = -1; value <= CEILING + 1; value += 7) {
+      final int index = Arrays.binarySearch(expected, value);
+      Assertions.assertEquals(index, file.indexOf(value));
+      Assertions.assertEquals(index >= 0 ? index + 1 : -index - 1, file.countEqualToOrLessThan(value));
+    }
+    for (final int prime : expected) {
+      Assertions.assertEquals(Arrays.binarySearch(expected, prime), file.indexOf(prime));
+    }
+  }
+
+  @Test
+  public void test_raw() throws Exception {
+    testFile(rawPath, PrimeFile.VERSION_RAW);
+  }
+
+  @Test
+  public void test_compact() throws Exception {
+    testFile(compactPath, PrimeFile.VERSION_GAPS);
+  }
+
+  @Test
+  public void test_checked() throws Exception {
+    testFile(checkedPath, PrimeFile.VERSION_CHECKED);
+  }
+
+  @Test
+  public void test_checked_valid() throws Exception {
+    try (final FileChannel channel = FileChannel.open(checkedPath)) {
+      final PrimeFile file = PrimeFile.openChecked(channel);
+      Assertions.assertEquals(IntBuffer.wrap(expected), file.getPrimes());
+      Assertions.assertEquals(CEILING, file.getCeiling());
+    }
+    try (final FileChannel channel = FileChannel.open(rawPath)) {
+      Assertions.assertNull(PrimeFile.openChecked(channel));
+    }
+    try (final FileChannel channel = FileChannel.open(compactPath)) {
+      Assertions.assertNull(PrimeFile.openChecked(channel));
+    }
+  }
+
+  @Test
+  public void test_checked_invalid() throws Exception {
+    final Path path = Files.createTempFile("primes", ".bin");
+    try {
+      Files.copy(checkedPath, path, StandardCopyOption.REPLACE_EXISTING);
+      try (final FileChannel channel = FileChannel.open(path, READ, WRITE)) {
+        channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 9), PrimeFile.CHECKED_HEADER_BYTES + 1000);
+        Assertions.assertNull(PrimeFile.openChecked(channel));
+        channel.truncate(channel.size() - Integer.BYTES);
+        Assertions.assertNull(PrimeFile.openChecked(channel));
+        channel.truncate(2);
+        Assertions.assertNull(PrimeFile.openChecked(channel));
+      }
+      Files.copy(checkedPath, path, StandardCopyOption.REPLACE_EXISTING);
+      try (final FileChannel channel = FileChannel.open(path, WRITE)) {
+        channel.truncate(channel.size() - Integer.BYTES);
+      }
+      Assertions.assertThrows(IllegalStateException.class, () -> PrimeFile.open(path));
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void test_ceiling() throws Exception {
+    // Only the checked format records the ceiling. The others end with the largest prime below it.
+    Assertions.assertEquals(CEILING, PrimeFile.open(checkedPath).getCeiling());
+    Assertions.assertEquals(expected[expected.length - 1], PrimeFile.open(rawPath).getCeiling());
+    Assertions.assertEquals(expected[expected.length - 1], PrimeFile.open(compactPath).getCeiling());
+  }
+
+  @Test
+  public void test_compact_size() throws Exception {
+    // One byte per prime, one int per checkpoint, plus the header.
+    final long checkpoints = (expected.length + PrimeFile.CHECKPOINT_INTERVAL - 1) / PrimeFile.CHECKPOINT_INTERVAL;
+    final long size = PrimeFile.HEADER_BYTES + expected.length + checkpoints * Integer.BYTES;
+    Assertions.assertEquals(size, Files.size(compactPath));
+  }
+
+  @Test
+  public void test_index_out_of_bounds() throws Exception {
+    final PrimeFile file = PrimeFile.open(compactPath);
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> file.get(-1));
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> file.get(expected.length));
+  }
+
+}
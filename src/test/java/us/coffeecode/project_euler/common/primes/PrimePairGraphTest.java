@@ -0,0 +1,90 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.common.MillerRabin;
+
+/**
+ * <p>
+ * Test harness for {@link PrimePairGraph}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimePairGraphTest {
+
+  private static int[] primes;
+
+  private static PrimalityCheck check;
+
+  private static PrimePairGraph graph;
+
+  @BeforeAll
+  public static void before() {
+    primes = new SievePrimeProvider().getPrimesEqualToOrLessThan(1_000);
+    check = new PrimalityCheck(new SievePrimeProvider(), new MillerRabin(), 1_000_000);
+    graph = PrimePairGraph.build(IntBuffer.wrap(primes), check);
+  }
+
+  @Test
+  public void test_concatenate() {
+    Assertions.assertEquals(3_109, PrimePairGraph.concatenate(3, 109));
+    Assertions.assertEquals(10_910, PrimePairGraph.concatenate(109, 10));
+    Assertions.assertEquals(99_999_999_999L, PrimePairGraph.concatenate(99_999, 999_999));
+  }
+
+  @Test
+  public void test_connected() {
+    Assertions.assertEquals(primes.length, graph.size());
+    for (int i = 0; i < primes.length; ++i) {
+      for (int j = 0; j < primes.length; ++j) {
+        final boolean expected = (i != j) && check.test(Long.parseLong(primes[i] + "" + primes[j]))
+          && check.test(Long.parseLong(primes[j] + "" + primes[i]));
+        Assertions.assertEquals(expected, graph.isConnected(i, j), primes[i] + " " + primes[j]);
+      }
+    }
+  }
+
+  @Test
+  public void test_clique() {
+    Assertions.assertArrayEquals(new int[] { 2 }, graph.findMinimumSumClique(1));
+    Assertions.assertArrayEquals(new int[] { 3, 7 }, graph.findMinimumSumClique(2));
+    // The example in problem 60.
+    Assertions.assertArrayEquals(new int[] { 3, 7, 109, 673 }, graph.findMinimumSumClique(4));
+    Assertions.assertNull(graph.findMinimumSumClique(5));
+  }
+
+  @Test
+  public void test_clique_invalid() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> graph.findMinimumSumClique(0));
+  }
+
+  @Test
+  public void test_empty() {
+    Assertions.assertNull(PrimePairGraph.build(IntBuffer.allocate(0), check).findMinimumSumClique(1));
+  }
+
+}
@@ -0,0 +1,106 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Spliterator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link PrimeSpliterator} and the prime streams built on it. Results are checked against
+ * {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimeSpliteratorTest {
+
+  private static final int CEILING = 2_000_000;
+
+  private static int[] expected;
+
+  private static IPrimeProvider provider;
+
+  @BeforeAll
+  public static void before() {
+    provider = new SievePrimeProvider();
+    expected = provider.getPrimesEqualToOrLessThan(CEILING);
+  }
+
+  @Test
+  public void test_range() {
+    for (final int[] range : new int[][] { { 0, 100 }, { 2, 2 }, { 3, 4 }, { 14, 16 }, { 100, 10 }, { 97, 1_000 },
+      { 1_000, CEILING }, { -5, 1 } }) {
+      final int[] actual = provider.streamPrimesBetween(range[0], range[1]).toArray();
+      Assertions.assertArrayEquals(Arrays.stream(expected).filter(p -> (range[0] <= p) && (p <= range[1])).toArray(),
+        actual);
+    }
+  }
+
+  @Test
+  public void test_parallel() {
+    final long sum = provider.streamPrimesBetween(0, CEILING).parallel().asLongStream().sum();
+    Assertions.assertEquals(Arrays.stream(expected).asLongStream().sum(), sum);
+    Assertions.assertArrayEquals(expected, provider.streamPrimesBetween(2, CEILING).parallel().toArray());
+  }
+
+  @Test
+  public void test_split() {
+    final PrimeSpliterator all = PrimeSpliterator.atLeast(IntBuffer.wrap(expected), 3);
+    Assertions.assertEquals(expected.length - 1, all.getExactSizeIfKnown());
+    Assertions.assertTrue(all.hasCharacteristics(Spliterator.SORTED | Spliterator.SIZED | Spliterator.SUBSIZED));
+    Assertions.assertNull(all.getComparator());
+
+    // The prefix and the remainder are equal halves, and together they cover every prime exactly once.
+    final long size = all.estimateSize();
+    final Spliterator.OfInt prefix = all.trySplit();
+    Assertions.assertEquals(size / 2, prefix.estimateSize());
+    Assertions.assertEquals(size - size / 2, all.estimateSize());
+    final int[] first = new int[1];
+    Assertions.assertTrue(prefix.tryAdvance((int p) -> first[0] = p));
+    Assertions.assertEquals(3, first[0]);
+    final long[] count = new long[1];
+    prefix.forEachRemaining((int p) -> ++count[0]);
+    all.forEachRemaining((int p) -> ++count[0]);
+    Assertions.assertEquals(size - 1, count[0]);
+    Assertions.assertFalse(all.tryAdvance((int p) -> Assertions.fail()));
+  }
+
+  @Test
+  public void test_split_small() {
+    Assertions.assertNull(PrimeSpliterator.atLeast(IntBuffer.wrap(new int[] { 2, 3, 5, 7 }), 0).trySplit());
+  }
+
+  @Test
+  public void test_file() throws Exception {
+    // A provider backed by a file streams straight from the mapping.
+    final IPrimeProvider file = new FileCachePrimeProvider(Path.of("primes.bin"),
+      new ParallelSievePrimeProvider());
+    Assertions.assertEquals(Arrays.stream(expected).filter(p -> p >= 1_000_000).count(), file.streamPrimesBetween(
+      1_000_000, CEILING).parallel().count());
+  }
+
+}
@@ -0,0 +1,116 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.nio.IntBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link PrimeWindows} and {@link PrimeWindow}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class PrimeWindowsTest {
+
+  private final CountingPrimeProvider provider = new CountingPrimeProvider(new SegmentedSievePrimeProvider());
+
+  private final PrimeWindows windows = new PrimeWindows(provider);
+
+  @Test
+  public void test_lazy() {
+    try (final PrimeWindow window = windows.open(1_000_000)) {
+      Assertions.assertEquals(1_000_000, window.getCeiling());
+      Assertions.assertEquals(0, provider.getPrimesRequested());
+      Assertions.assertEquals(0, windows.getReferenceCount());
+      Assertions.assertEquals(78_498, window.size());
+      Assertions.assertEquals(78_498, provider.getPrimesRequested());
+      Assertions.assertEquals(1, windows.getReferenceCount());
+    }
+    Assertions.assertEquals(0, windows.getReferenceCount());
+  }
+
+  @Test
+  public void test_primes() {
+    final int[] expected = new SegmentedSievePrimeProvider().getPrimesEqualToOrLessThan(10_000);
+    try (final PrimeWindow window = windows.open(10_000)) {
+      final IntBuffer primes = window.getPrimes();
+      Assertions.assertTrue(primes.isReadOnly());
+      Assertions.assertEquals(0, primes.position());
+      final int[] actual = new int[primes.limit()];
+      primes.get(actual);
+      Assertions.assertArrayEquals(expected, actual);
+      Assertions.assertEquals(2, window.get(0));
+      Assertions.assertEquals(9_973, window.get(window.size() - 1));
+    }
+  }
+
+  @Test
+  public void test_shared() {
+    try (final PrimeWindow wide = windows.open(100_000); final PrimeWindow narrow = windows.open(100)) {
+      Assertions.assertEquals(9_592, wide.size());
+      Assertions.assertEquals(25, narrow.size());
+      Assertions.assertEquals(97, narrow.get(24));
+      // The narrow window is a slice of the wide one, so no more primes were requested.
+      Assertions.assertEquals(9_592, provider.getPrimesRequested());
+      Assertions.assertEquals(2, windows.getReferenceCount());
+    }
+    Assertions.assertEquals(0, windows.getReferenceCount());
+  }
+
+  @Test
+  public void test_widen() {
+    try (final PrimeWindow narrow = windows.open(100)) {
+      Assertions.assertEquals(25, narrow.size());
+      try (final PrimeWindow wide = windows.open(1_000)) {
+        Assertions.assertEquals(168, wide.size());
+        Assertions.assertEquals(25, narrow.size());
+      }
+      Assertions.assertEquals(1, windows.getReferenceCount());
+    }
+    Assertions.assertEquals(193, provider.getPrimesRequested());
+  }
+
+  @Test
+  public void test_released() {
+    try (final PrimeWindow window = windows.open(100)) {
+      window.size();
+    }
+    try (final PrimeWindow window = windows.open(100)) {
+      window.size();
+    }
+    // Once the last window closes, the primes are released and the next window reads them again.
+    Assertions.assertEquals(50, provider.getPrimesRequested());
+  }
+
+  @Test
+  public void test_closed() {
+    final PrimeWindow window = windows.open(100);
+    window.size();
+    window.close();
+    window.close();
+    Assertions.assertEquals(0, windows.getReferenceCount());
+    Assertions.assertThrows(IllegalStateException.class, () -> window.getPrimes());
+  }
+
+}
@@ -0,0 +1,103 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.common.primes;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link SegmentedSievePrimeProvider}. Results are checked against {@link SievePrimeProvider}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SegmentedSievePrimeProviderTest {
+
+  private void testCeiling(final int ceiling) {
+    final int[] expected = new SievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+    final int[] actual = new SegmentedSievePrimeProvider().getPrimesEqualToOrLessThan(ceiling);
+    Assertions.assertArrayEquals(expected, actual);
+  }
+
+  private void testQuantity(final int quantity) {
+    final int[] expected = new SievePrimeProvider().getFirstNPrimes(quantity);
+    final int[] actual = new SegmentedSievePrimeProvider().getFirstNPrimes(quantity);
+    Assertions.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void test_ceiling_small() {
+    for (int ceiling = 0; ceiling < 200; ++ceiling) {
+      testCeiling(ceiling);
+    }
+  }
+
+  @Test
+  public void test_ceiling_segment_boundary() {
+    final int span = SegmentedSievePrimeProvider.SEGMENT_BITS << 1;
+    testCeiling(span);
+    testCeiling(span + 1);
+    testCeiling(span + 2);
+    testCeiling(span + 3);
+  }
+
+  @Test
+  public void test_ceiling_10000000() {
+    testCeiling(10_000_000);
+  }
+
+  @Test
+  public void test_range() {
+    final int[] all = new SievePrimeProvider().getPrimesEqualToOrLessThan(2_000_000);
+    final int span = SegmentedSievePrimeProvider.SEGMENT_BITS << 1;
+    for (final int floor : new int[] { -1, 0, 1, 2, 3, 4, 100, span, span + 1, span + 2, 1_000_000, 1_999_999 }) {
+      final int[] actual = new int[all.length];
+      final int[] found = new int[1];
+      new SegmentedSievePrimeProvider().sieve(floor, 2_000_000, p -> {
+        actual[found[0]++] = p;
+        return true;
+      });
+      final int from = (int) Arrays.stream(all).filter(p -> p <= floor).count();
+      Assertions.assertArrayEquals(Arrays.copyOfRange(all, from, all.length), Arrays.copyOf(actual, found[0]));
+    }
+  }
+
+  @Test
+  public void test_quantity_small() {
+    for (int quantity = 0; quantity < 100; ++quantity) {
+      testQuantity(quantity);
+    }
+  }
+
+  @Test
+  public void test_quantity_1000000() {
+    testQuantity(1_000_000);
+  }
+
+  @Test
+  public void test_quantity_negative() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> new SegmentedSievePrimeProvider().getFirstNPrimes(-1));
+  }
+
+}
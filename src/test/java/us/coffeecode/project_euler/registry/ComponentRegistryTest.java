@@ -0,0 +1,126 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import us.coffeecode.project_euler.ISolver;
+import us.coffeecode.project_euler.InjectionConfiguration;
+import us.coffeecode.project_euler.common.SmallestPrimeFactorTable;
+import us.coffeecode.project_euler.common.primes.IPrimeProvider;
+import us.coffeecode.project_euler.common.primes.PrimalityCheck;
+
+/**
+ * <p>
+ * Test harness for {@link ComponentRegistry} and the index written by {@link ComponentIndexProcessor}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class ComponentRegistryTest {
+
+  private final List<Class<?>> created = new ArrayList<>();
+
+  private final ComponentRegistry registry = new ComponentRegistry(InjectionConfiguration.class, bean -> {
+    created.add(bean.getClass());
+    return bean;
+  });
+
+  private void testSolver(final String id) {
+    final ISolver solver = registry.getSolver(id);
+    Assertions.assertEquals(solver.getExpectedResult(), solver.getActualResult());
+  }
+
+  @Test
+  public void test_indexed() {
+    Assertions.assertTrue(registry.isIndexed());
+  }
+
+  @Test
+  public void test_same_solvers_as_spring() {
+    final Set<String> expected;
+    try (ConfigurableApplicationContext context =
+      new AnnotationConfigApplicationContext(InjectionConfiguration.class)) {
+      expected = new TreeSet<>(context.getBeansOfType(ISolver.class).keySet());
+    }
+    Assertions.assertEquals(expected, new TreeSet<>(registry.getSolverIds()));
+  }
+
+  @Test
+  public void test_lazy() {
+    Assertions.assertTrue(created.isEmpty());
+    testSolver("1");
+    Assertions.assertEquals(1, created.size());
+  }
+
+  @Test
+  public void test_field_injection() {
+    // Problem 7 has an autowired prime provider field, which comes from the configuration's bean method.
+    testSolver("7");
+    Assertions.assertTrue(created.stream().anyMatch(IPrimeProvider.class::isAssignableFrom));
+  }
+
+  @Test
+  public void test_constructor_injection() {
+    // Problem 58 has an autowired constructor, and so does the primality check it needs.
+    testSolver("58");
+    Assertions.assertTrue(created.contains(PrimalityCheck.class));
+  }
+
+  @Test
+  public void test_default_constructor() {
+    // The smallest prime factor table has two constructors, neither of them autowired.
+    testSolver("47");
+    Assertions.assertTrue(created.contains(SmallestPrimeFactorTable.class));
+  }
+
+  @Test
+  public void test_singleton() {
+    Assertions.assertSame(registry.getSolver("3"), registry.getSolver("3"));
+    Assertions.assertSame(registry.getBean(PrimalityCheck.class), registry.getBean(PrimalityCheck.class));
+    Assertions.assertSame(registry.getBean(IPrimeProvider.class), registry.getBean(IPrimeProvider.class));
+  }
+
+  @Test
+  public void test_unknown_solver() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> registry.getSolver("68"));
+  }
+
+  @Test
+  public void test_unknown_bean() {
+    Assertions.assertThrows(IllegalStateException.class, () -> registry.getBean(Runnable.class));
+  }
+
+  @Test
+  public void test_getBeanName() {
+    Assertions.assertEquals("60", ComponentIndexProcessor.getBeanName("60", "Solver_0060"));
+    Assertions.assertEquals("primalityCheck", ComponentIndexProcessor.getBeanName("", "PrimalityCheck"));
+    Assertions.assertEquals("IPrimeProvider", ComponentIndexProcessor.getBeanName("", "IPrimeProvider"));
+  }
+
+}
@@ -0,0 +1,98 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ * Test harness for {@link SolverReport}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverReportTest {
+
+  private static final List<SolverResult> RESULTS = List.of(
+    new SolverResult("1", 1, 1, new SolverMetrics(300, 200, 4096, 0, 0, 0), new SolverMetrics(50, 40, 1024, 0, 0, 0),
+      null),
+    new SolverResult("2", 2, 3, new SolverMetrics(100, 100, 8192, 1, 5, 10), null),
+    new SolverResult("10", 1, 0, new SolverMetrics(300, -1, -1, 0, 0, 0), new IllegalStateException("a \"b\"")));
+
+  private static List<String> sorted(final String metric) {
+    final List<SolverResult> sorted = new ArrayList<>(RESULTS);
+    sorted.sort(SolverReport.sortBy(metric));
+    return sorted.stream().map(SolverResult::getId).toList();
+  }
+
+  @Test
+  public void test_sortBy() {
+    Assertions.assertEquals(List.of("1", "2", "10"), sorted("id"));
+    Assertions.assertEquals(List.of("1", "10", "2"), sorted("wall"));
+    Assertions.assertEquals(List.of("10", "2", "1"), sorted("warm"));
+    Assertions.assertEquals(List.of("1", "2", "10"), sorted("cpu"));
+    Assertions.assertEquals(List.of("2", "1", "10"), sorted("alloc"));
+    Assertions.assertEquals(List.of("2", "1", "10"), sorted("primes"));
+  }
+
+  @Test
+  public void test_sortBy_unknown() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> SolverReport.sortBy("heap"));
+  }
+
+  @Test
+  public void test_writeCsv() {
+    final StringWriter out = new StringWriter();
+    SolverReport.writeCsv(RESULTS, new PrintWriter(out));
+    final List<String> lines = out.toString().lines().toList();
+    Assertions.assertEquals(4, lines.size());
+    Assertions.assertEquals("1,true,1,1,,300,200,4096,0,0,0,50,40,1024", lines.get(1));
+    Assertions.assertEquals("2,false,2,3,,100,100,8192,1,5,10,100,100,8192", lines.get(2));
+    Assertions.assertEquals("10,false,1,0,\"java.lang.IllegalStateException: a \"\"b\"\"\",300,-1,-1,0,0,0,300,-1,-1",
+      lines.get(3));
+  }
+
+  @Test
+  public void test_writeJson() {
+    final StringWriter out = new StringWriter();
+    SolverReport.writeJson(RESULTS, new PrintWriter(out));
+    final List<String> lines = out.toString().lines().toList();
+    Assertions.assertEquals(5, lines.size());
+    Assertions.assertEquals("[", lines.get(0));
+    Assertions.assertTrue(lines.get(1).startsWith("  {\"id\": \"1\", \"passed\": true,"));
+    Assertions.assertTrue(lines.get(1).endsWith("\"warmAllocatedBytes\": 1024},"));
+    Assertions.assertTrue(lines.get(3).contains("\"error\": \"java.lang.IllegalStateException: a \\\"b\\\"\""));
+    Assertions.assertTrue(lines.get(3).endsWith("}"));
+    Assertions.assertEquals("]", lines.get(4));
+  }
+
+  @Test
+  public void test_quote() {
+    Assertions.assertEquals("\"\"", SolverReport.quote(""));
+    Assertions.assertEquals("\"a\\\\b\\\"c\\u000a\"", SolverReport.quote("a\\b\"c\n"));
+  }
+
+}
@@ -0,0 +1,174 @@
+/* Project Euler solutions written by John Gaughan
+ * Copyright (C) 2021  John Gaughan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package us.coffeecode.project_euler.runner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import us.coffeecode.project_euler.ISolver;
+
+/**
+ * <p>
+ * Test harness for {@link SolverRunner}.
+ * </p>
+ * <p>
+ * Copyright (c) 2021 John Gaughan
+ * </p>
+ *
+ * @author John Gaughan &lt;john@coffeecode.us&gt;
+ */
+public final class SolverRunnerTest {
+
+  /** Pools created by the current test, which are shut down after it. */
+  private final List<ForkJoinPool> pools = new ArrayList<>();
+
+  @AfterEach
+  public void after() {
+    pools.forEach(ForkJoinPool::shutdown);
+  }
+
+  /** Create a pool that is shut down after the current test. */
+  private ForkJoinPool pool(final int parallelism) {
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    pools.add(pool);
+    return pool;
+  }
+
+  /** Solver that returns a fixed result. */
+  private static ISolver solver(final long expected, final long actual) {
+    return new ISolver() {
+
+      @Override
+      public long getExpectedResult() {
+        return expected;
+      }
+
+      @Override
+      public long getActualResult() {
+        return actual;
+      }
+    };
+  }
+
+  @Test
+  public void test_schedule() {
+    final Map<String, Long> times = Map.of("1", Long.valueOf(5), "2", Long.valueOf(50), "10", Long.valueOf(5));
+    Assertions.assertEquals(List.of("3", "2", "1", "10"), SolverRunner.schedule(List.of("1", "2", "3", "10"), times));
+  }
+
+  @Test
+  public void test_run() {
+    final ISolver throwing = new ISolver() {
+
+      @Override
+      public long getExpectedResult() {
+        return 1;
+      }
+
+      @Override
+      public long getActualResult() {
+        throw new IllegalStateException("broken");
+      }
+    };
+    final Map<String, ISolver> solvers = Map.of("1", solver(1, 1), "2", solver(2, 3), "10", throwing);
+    final SolverRunner runner = new SolverRunner(solvers, pool(2), null);
+    final List<SolverResult> results = runner.run(runner.getIds(), Map.of());
+
+    Assertions.assertEquals(List.of("1", "2", "10"), results.stream().map(SolverResult::getId).toList());
+    Assertions.assertTrue(results.get(0).isPassed());
+    Assertions.assertFalse(results.get(1).isPassed());
+    Assertions.assertEquals(3, results.get(1).getActual());
+    Assertions.assertFalse(results.get(2).isPassed());
+    Assertions.assertTrue(results.get(2).getError() instanceof IllegalStateException);
+    for (final SolverResult result : results) {
+      Assertions.assertTrue(result.getWallNanos() >= 0);
+      Assertions.assertEquals(0, result.getMetrics().getPrimesRequested());
+    }
+  }
+
+  @Test
+  public void test_run_repeated() {
+    final ISolver counting = new ISolver() {
+
+      private long calls;
+
+      @Override
+      public long getExpectedResult() {
+        return 1;
+      }
+
+      @Override
+      public long getActualResult() {
+        return ++calls;
+      }
+    };
+    final Map<String, ISolver> solvers = Map.of("1", solver(1, 1), "2", counting);
+    final SolverRunner runner = new SolverRunner(solvers, pool(1), null);
+    final List<SolverResult> results = runner.run(runner.getIds(), Map.of(), 3);
+
+    Assertions.assertTrue(results.get(0).isPassed());
+    Assertions.assertFalse(results.get(1).isPassed());
+    Assertions.assertEquals(1, results.get(1).getActual());
+    Assertions.assertTrue(results.get(1).getError() instanceof IllegalStateException);
+  }
+
+  @Test
+  public void test_run_calls_invalid() {
+    final SolverRunner runner = new SolverRunner(Map.of("1", solver(1, 1)), pool(1), null);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> runner.run(List.of("1"), Map.of(), 0));
+  }
+
+  @Test
+  public void test_isAllocationGrowing() {
+    Assertions.assertFalse(SolverRunner.isAllocationGrowing(1_000, 1_000));
+    Assertions.assertFalse(SolverRunner.isAllocationGrowing(0, SolverRunner.ALLOCATION_SLACK));
+    Assertions.assertTrue(SolverRunner.isAllocationGrowing(0, SolverRunner.ALLOCATION_SLACK + 1));
+    Assertions.assertTrue(SolverRunner.isAllocationGrowing(10_000_000, 30_000_000));
+    Assertions.assertFalse(SolverRunner.isAllocationGrowing(-1, 30_000_000));
+  }
+
+  @Test
+  public void test_run_unknown() {
+    final SolverRunner runner = new SolverRunner(Map.of("1", solver(1, 1)), pool(1), null);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> runner.run(List.of("2"), Map.of()));
+  }
+
+  @Test
+  public void test_times() throws Exception {
+    final Path path = Files.createTempDirectory("solver-times").resolve("times.properties");
+    try {
+      Assertions.assertTrue(SolverRunner.readTimes(path).isEmpty());
+      final List<SolverResult> results = List.of(new SolverResult("2", 1, 1, new SolverMetrics(200, 0, 0, 0, 0, 0),
+        null));
+      SolverRunner.writeTimes(path, Map.of("1", Long.valueOf(100), "2", Long.valueOf(1)), results);
+      Assertions.assertEquals(Map.of("1", Long.valueOf(100), "2", Long.valueOf(200)), SolverRunner.readTimes(path));
+    }
+    finally {
+      Files.deleteIfExists(path);
+      Files.deleteIfExists(path.getParent());
+    }
+  }
+
+}